@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a trading account. Could be a TFSA, RRSP, cash, etc. 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts">
  * The account properties documentation</a>
@@ -79,4 +86,51 @@ public class Account {
 	void setUserId(int userId) {
 		this.userId = userId;
 	}
+	
+	/** Reads and writes {@code Account} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Account> {
+		
+		@Override
+		public Account read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Account account = new Account();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "type": account.type = Codec.nextString(in); break;
+					case "number": account.number = Codec.nextString(in); break;
+					case "status": account.status = Codec.nextString(in); break;
+					case "isPrimary": account.isPrimary = Codec.nextBoolean(in); break;
+					case "isBilling": account.isBilling = Codec.nextBoolean(in); break;
+					case "clientAccountType": account.clientAccountType = Codec.nextString(in); break;
+					case "userId": account.userId = Codec.nextInt(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return account;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Account account) throws IOException {
+			if(account == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("type").value(account.type);
+			out.name("number").value(account.number);
+			out.name("status").value(account.status);
+			out.name("isPrimary").value(account.isPrimary);
+			out.name("isBilling").value(account.isBilling);
+			out.name("clientAccountType").value(account.clientAccountType);
+			out.name("userId").value(account.userId);
+			out.endObject();
+		}
+	}
 }
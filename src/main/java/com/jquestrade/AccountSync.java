@@ -0,0 +1,219 @@
+package com.jquestrade;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jquestrade.Order.OrderState;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Keeps an up-to-date, in-memory view of the executions and orders of one or more accounts, while only requesting what changed since
+ * the previous sync. For each account, it remembers a watermark: the time of the latest execution and of the latest created order that
+ * it has seen. A sync only requests the executions and orders from a little before the watermarks up to now, and merges them into
+ * views keyed by ID.<br><br>
+ *
+ * Since the Questrade API filters orders by their creation time, an order created before the watermark that changes later (such as
+ * an open order that gets filled) wouldn't be in the window. So every sync also requests the orders that are still open, by ID.<br><br>
+ *
+ * Example usage:<br>
+ * {@code AccountSync sync = new AccountSync(q, ZonedDateTime.now().minusDays(1));}<br>
+ * {@code AccountSync.Changes changes = sync.sync(accountNumber); // Every few seconds}<br>
+ * {@code Map<Integer, Order> orders = sync.getOrders(accountNumber);}
+ */
+public class AccountSync {
+
+	/** How far before a watermark each sync starts, to pick up records that the Questrade API made visible late. */
+	private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+	/** The most order IDs to put in one request. */
+	private static final int MAX_IDS_PER_REQUEST = 100;
+
+	/** The order states after which an order can no longer change. */
+	private static final Set<String> FINAL_ORDER_STATES = new HashSet<>(Arrays.asList(
+			"Executed", "Canceled", "Rejected", "Expired", "Replaced", "Failed", "Closed"));
+
+	private final Questrade questrade;
+	private final ZonedDateTime since;
+
+	private final Map<String, AccountState> accounts = new ConcurrentHashMap<>();
+
+	/** The synced state of one account. The maps are replaced rather than changed, so that readers never see a sync half-applied. */
+	private static final class AccountState {
+		final ReentrantLock lock = new ReentrantLock();
+		volatile Map<Long, Execution> executions = Collections.emptyMap();
+		volatile Map<Integer, Order> orders = Collections.emptyMap();
+		ZonedDateTime executionsWatermark;
+		ZonedDateTime ordersWatermark;
+
+		AccountState(ZonedDateTime since) {
+			this.executionsWatermark = since;
+			this.ordersWatermark = since;
+		}
+	}
+
+	/** The executions and orders that were new or changed in one sync. */
+	public static final class Changes {
+		private final Execution[] executions;
+		private final Order[] orders;
+
+		Changes(Execution[] executions, Order[] orders) {
+			this.executions = executions;
+			this.orders = orders;
+		}
+
+		/** Returns the executions that weren't seen before.
+		 * @return The new executions.
+		 */
+		public Execution[] getExecutions() {
+			return executions;
+		}
+
+		/** Returns the orders that weren't seen before, or whose update time changed.
+		 * @return The new and changed orders.
+		 */
+		public Order[] getOrders() {
+			return orders;
+		}
+
+		/** Returns whether nothing changed.
+		 * @return {@code true} if there are no new executions and no new or changed orders.
+		 */
+		public boolean isEmpty() {
+			return executions.length == 0 && orders.length == 0;
+		}
+	}
+
+	/** Creates a sync that starts each account's view at the given time.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @param since The time to request executions and orders from on an account's first sync.
+	 */
+	public AccountSync(Questrade questrade, ZonedDateTime since) {
+		this.questrade = questrade;
+		this.since = since;
+	}
+
+	/** Requests the executions and orders of an account that changed since its last sync, and merges them into its view.
+	 * The requests are sent concurrently. Syncs of different accounts can run at the same time. If any request fails, the account's view
+	 * and watermarks don't change, so the next sync requests the same time period again.
+	 * @param accountNumber The account to sync.
+	 * @return The executions and orders that were new or changed.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public Changes sync(String accountNumber) throws RefreshTokenException {
+		AccountState state = accounts.computeIfAbsent(accountNumber, key -> new AccountState(since));
+
+		state.lock.lock();
+		try {
+			ZonedDateTime now = ZonedDateTime.now(since.getZone());
+			QuestradeAsync async = questrade.async();
+
+			List<CompletableFuture<Execution[]>> executionRequests = new ArrayList<>();
+			for(ZonedDateTime[] window : Questrade.timeWindows(windowStart(state.executionsWatermark, now), now)) {
+				executionRequests.add(async.getExecutions(accountNumber, window[0], window[1]));
+			}
+
+			List<CompletableFuture<Order[]>> orderRequests = new ArrayList<>();
+			for(ZonedDateTime[] window : Questrade.timeWindows(windowStart(state.ordersWatermark, now), now)) {
+				orderRequests.add(async.getOrders(accountNumber, window[0], window[1], OrderState.All));
+			}
+
+			int[] openIds = state.orders.values().stream()
+					.filter(order -> !FINAL_ORDER_STATES.contains(order.getState()))
+					.mapToInt(Order::getId)
+					.toArray();
+			for(int from = 0; from < openIds.length; from += MAX_IDS_PER_REQUEST) {
+				orderRequests.add(async.getOrders(accountNumber, Arrays.copyOfRange(openIds, from, Math.min(from + MAX_IDS_PER_REQUEST, openIds.length))));
+			}
+
+			// Merged into copies, so that if any request fails, the view and the watermarks are left as they were
+			List<Execution> newExecutions = new ArrayList<>();
+			Map<Long, Execution> executions = new LinkedHashMap<>(state.executions);
+			ZonedDateTime executionsWatermark = state.executionsWatermark;
+			for(CompletableFuture<Execution[]> request : executionRequests) {
+				for(Execution execution : nonNull(Questrade.join(request))) {
+					if(executions.putIfAbsent((long) execution.getId(), execution) == null) {
+						newExecutions.add(execution);
+						executionsWatermark = later(executionsWatermark, execution.getTimestampMillis());
+					}
+				}
+			}
+
+			Map<Integer, Order> changedOrders = new LinkedHashMap<>();
+			Map<Integer, Order> orders = new LinkedHashMap<>(state.orders);
+			ZonedDateTime ordersWatermark = state.ordersWatermark;
+			for(CompletableFuture<Order[]> request : orderRequests) {
+				for(Order order : nonNull(Questrade.join(request))) {
+					Order previous = orders.put(order.getId(), order);
+					if(previous == null || !String.valueOf(previous.getUpdateTime()).equals(String.valueOf(order.getUpdateTime()))) {
+						changedOrders.put(order.getId(), order);
+					}
+					ordersWatermark = later(ordersWatermark, order.getCreationTimeMillis());
+				}
+			}
+
+			state.executions = Collections.unmodifiableMap(executions);
+			state.orders = Collections.unmodifiableMap(orders);
+			state.executionsWatermark = executionsWatermark;
+			state.ordersWatermark = ordersWatermark;
+
+			return new Changes(
+					newExecutions.toArray(new Execution[newExecutions.size()]),
+					changedOrders.values().toArray(new Order[changedOrders.size()]));
+		} finally {
+			state.lock.unlock();
+		}
+	}
+
+	/** Returns the synced executions of an account, by execution ID. The map doesn't change; a later sync replaces it with a new one.
+	 * @param accountNumber The account to get the executions of.
+	 * @return The executions, or an empty map if the account hasn't been synced.
+	 */
+	public Map<Long, Execution> getExecutions(String accountNumber) {
+		AccountState state = accounts.get(accountNumber);
+		return state != null ? state.executions : Collections.emptyMap();
+	}
+
+	/** Returns the synced orders of an account, by order ID. The map doesn't change; a later sync replaces it with a new one.
+	 * @param accountNumber The account to get the orders of.
+	 * @return The orders, or an empty map if the account hasn't been synced.
+	 */
+	public Map<Integer, Order> getOrders(String accountNumber) {
+		AccountState state = accounts.get(accountNumber);
+		return state != null ? state.orders : Collections.emptyMap();
+	}
+
+	/** Forgets an account's view and watermarks, so that its next sync starts over from the initial time.
+	 * @param accountNumber The account to forget.
+	 */
+	public void reset(String accountNumber) {
+		accounts.remove(accountNumber);
+	}
+
+	private static ZonedDateTime windowStart(ZonedDateTime watermark, ZonedDateTime now) {
+		ZonedDateTime start = watermark.minus(OVERLAP);
+		return start.isAfter(now) ? now : start;
+	}
+
+	/** Returns the later of the watermark and the given time, which is {@code 0} if a record had no timestamp. */
+	private static ZonedDateTime later(ZonedDateTime watermark, long millis) {
+		Instant instant = Instant.ofEpochMilli(millis);
+		return instant.isAfter(watermark.toInstant()) ? instant.atZone(watermark.getZone()) : watermark;
+	}
+
+	private static <T> List<T> nonNull(T[] array) {
+		return array != null ? Arrays.asList(array) : Collections.emptyList();
+	}
+}
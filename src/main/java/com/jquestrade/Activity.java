@@ -1,5 +1,13 @@
 package com.jquestrade;
 
+import java.io.IOException;
+import java.util.Objects;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents an account activity. Could be a cash transactions, dividends, trades, etc. 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-activities">
  * The activity properties documentation</a>
@@ -23,6 +31,12 @@ public class Activity {
 	private double netAmount;
 	private String type;
 	
+	/** The value of the millisecond accessors before the timestamp they are parsed from is first asked for. */
+	private static final long UNPARSED = Long.MIN_VALUE;
+	private volatile long tradeDateMillis = UNPARSED;
+	private volatile long transactionDateMillis = UNPARSED;
+	private volatile long settlementDateMillis = UNPARSED;
+	
 	/** The trade date as a string in ISO 8601 format.
 	 * @return The trade date
 	 */
@@ -30,6 +44,19 @@ public class Activity {
 		return tradeDate;
 	}
 	
+	/** Returns the trade date in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The trade date in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getTradeDate()
+	 */
+	public long getTradeDateMillis() {
+		long millis = tradeDateMillis;
+		if(millis == UNPARSED) {
+			millis = tradeDate != null && !tradeDate.isEmpty() ? Timestamps.toEpochMilli(tradeDate) : 0;
+			tradeDateMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** The transaction date as a string in ISO 8601 format.
 	 * @return The transaction date
 	 */
@@ -37,6 +64,19 @@ public class Activity {
 		return transactionDate;
 	}
 	
+	/** Returns the transaction date in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The transaction date in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getTransactionDate()
+	 */
+	public long getTransactionDateMillis() {
+		long millis = transactionDateMillis;
+		if(millis == UNPARSED) {
+			millis = transactionDate != null && !transactionDate.isEmpty() ? Timestamps.toEpochMilli(transactionDate) : 0;
+			transactionDateMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** The settlement date as a string in ISO 8601 format.
 	 * @return The settlement date.
 	 */
@@ -44,6 +84,19 @@ public class Activity {
 		return settlementDate;
 	}
 	
+	/** Returns the settlement date in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The settlement date in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getSettlementDate()
+	 */
+	public long getSettlementDateMillis() {
+		long millis = settlementDateMillis;
+		if(millis == UNPARSED) {
+			millis = settlementDate != null && !settlementDate.isEmpty() ? Timestamps.toEpochMilli(settlementDate) : 0;
+			settlementDateMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** The action.<br>
 	 * <u>Example types:</u><br>
 	 * Buy (for orders)<br>
@@ -137,4 +190,85 @@ public class Activity {
 	public String getType() {
 		return type;
 	}
-}
\ No newline at end of file
+	
+	/** Returns whether the other activity has the same values in every field. Activities have no identifier, so this is how an activity
+	 * returned by two requests whose time periods share a boundary is recognized.
+	 */
+	boolean sameAs(Activity other) {
+		return symbolId == other.symbolId
+				&& Double.compare(quantity, other.quantity) == 0
+				&& Double.compare(price, other.price) == 0
+				&& Double.compare(grossAmount, other.grossAmount) == 0
+				&& Double.compare(commission, other.commission) == 0
+				&& Double.compare(netAmount, other.netAmount) == 0
+				&& Objects.equals(tradeDate, other.tradeDate)
+				&& Objects.equals(transactionDate, other.transactionDate)
+				&& Objects.equals(settlementDate, other.settlementDate)
+				&& Objects.equals(action, other.action)
+				&& Objects.equals(symbol, other.symbol)
+				&& Objects.equals(description, other.description)
+				&& Objects.equals(currency, other.currency)
+				&& Objects.equals(type, other.type);
+	}
+	
+	/** Reads and writes {@code Activity} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Activity> {
+		
+		@Override
+		public Activity read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Activity activity = new Activity();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "tradeDate": activity.tradeDate = Codec.nextString(in); break;
+					case "transactionDate": activity.transactionDate = Codec.nextString(in); break;
+					case "settlementDate": activity.settlementDate = Codec.nextString(in); break;
+					case "action": activity.action = Codec.nextString(in); break;
+					case "symbol": activity.symbol = Codec.nextString(in); break;
+					case "symbolId": activity.symbolId = Codec.nextInt(in); break;
+					case "description": activity.description = Codec.nextString(in); break;
+					case "currency": activity.currency = Codec.nextString(in); break;
+					case "quantity": activity.quantity = Codec.nextDouble(in); break;
+					case "price": activity.price = Codec.nextDouble(in); break;
+					case "grossAmount": activity.grossAmount = Codec.nextDouble(in); break;
+					case "commission": activity.commission = Codec.nextDouble(in); break;
+					case "netAmount": activity.netAmount = Codec.nextDouble(in); break;
+					case "type": activity.type = Codec.nextString(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return activity;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Activity activity) throws IOException {
+			if(activity == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("tradeDate").value(activity.tradeDate);
+			out.name("transactionDate").value(activity.transactionDate);
+			out.name("settlementDate").value(activity.settlementDate);
+			out.name("action").value(activity.action);
+			out.name("symbol").value(activity.symbol);
+			out.name("symbolId").value(activity.symbolId);
+			out.name("description").value(activity.description);
+			out.name("currency").value(activity.currency);
+			out.name("quantity").value(activity.quantity);
+			out.name("price").value(activity.price);
+			out.name("grossAmount").value(activity.grossAmount);
+			out.name("commission").value(activity.commission);
+			out.name("netAmount").value(activity.netAmount);
+			out.name("type").value(activity.type);
+			out.endObject();
+		}
+	}
+}
@@ -1,15 +1,26 @@
 package com.jquestrade;
 
+import java.io.IOException;
+import java.time.Instant;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents the data that allows an application to make requests the Questrade API. */
 public class Authorization {
 	
-	/** Creates a Authorization object using cached data. */
-	Authorization(String refreshToken, String accessToken, String apiServer) {
+	private Authorization() {}
+	
+	/** Creates a Authorization object using cached data. The expiry time is {@code null} if it wasn't cached, since the real generation time isn't known. */
+	Authorization(String refreshToken, String accessToken, String apiServer, Instant expiryTime) {
 		this.refresh_token = refreshToken;
 		this.access_token = accessToken;
 		this.api_server = apiServer;
 		this.expires_in = 1800; // I've always seen it 1800 seconds
 		this.token_type = "Bearer"; // Access token type is always Bearer
+		this.expiresAt = expiryTime != null ? expiryTime.toEpochMilli() : UNKNOWN;
 	}
 	
 	private String access_token;
@@ -18,6 +29,11 @@ public class Authorization {
 	private String refresh_token;
 	private String token_type;
 	
+	private static final long UNKNOWN = Long.MIN_VALUE;
+	
+	/** When the access token expires, in milliseconds since the epoch, or {@link #UNKNOWN} for cached data without an expiry time. */
+	private long expiresAt = UNKNOWN;
+	
 	/** Returns the access token. Expires in 30 minutes after generation.
 	 * Only works with the assocatied API server, see {@link #getApiServer()}
 	 * @return The access token.
@@ -41,6 +57,14 @@ public class Authorization {
 		return expires_in;
 	}
 	
+	/** Returns the time at which the access token expires, which is {@link #getAccessTokenExpiry()} seconds after it was retrieved.
+	 * @return The time at which the access token expires, or {@code null} if this {@code Authorization} was created from cached data
+	 * without an expiry time, since the real generation time isn't known.
+	 */
+	public Instant getAccessTokenExpiryTime() {
+		return expiresAt != UNKNOWN ? Instant.ofEpochMilli(expiresAt) : null;
+	}
+	
 	/** Returns the new refresh token, which can be used to generate a new {@code Authorization}.
 	 * @return The new refresh token.
 	 */
@@ -55,5 +79,47 @@ public class Authorization {
 		return token_type;
 	}
 	
-	
+	/** Reads and writes {@code Authorization} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Authorization> {
+		
+		@Override
+		public Authorization read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Authorization authorization = new Authorization();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "access_token": authorization.access_token = Codec.nextString(in); break;
+					case "api_server": authorization.api_server = Codec.nextString(in); break;
+					case "expires_in": authorization.expires_in = Codec.nextInt(in); break;
+					case "refresh_token": authorization.refresh_token = Codec.nextString(in); break;
+					case "token_type": authorization.token_type = Codec.nextString(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			authorization.expiresAt = System.currentTimeMillis() + authorization.expires_in * 1000L;
+			return authorization;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Authorization authorization) throws IOException {
+			if(authorization == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("access_token").value(authorization.access_token);
+			out.name("api_server").value(authorization.api_server);
+			out.name("expires_in").value(authorization.expires_in);
+			out.name("refresh_token").value(authorization.refresh_token);
+			out.name("token_type").value(authorization.token_type);
+			out.endObject();
+		}
+	}
 }
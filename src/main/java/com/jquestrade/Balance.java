@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a per-currency or combined balances for a specified account. */
 public class Balance {
 	
@@ -64,5 +71,66 @@ public class Balance {
 		return isRealTime;
 	}
 	
+	/** Returns the sum of balances in the same currency, such as the balances of several accounts. It's only real-time if they all are. */
+	static Balance sum(String currency, Iterable<Balance> balances) {
+		Balance sum = new Balance();
+		sum.currency = currency;
+		sum.isRealTime = true;
+		for(Balance balance : balances) {
+			sum.cash += balance.cash;
+			sum.marketValue += balance.marketValue;
+			sum.totalEquity += balance.totalEquity;
+			sum.buyingPower += balance.buyingPower;
+			sum.maintenanceExcess += balance.maintenanceExcess;
+			sum.isRealTime &= balance.isRealTime;
+		}
+		return sum;
+	}
 	
+	/** Reads and writes {@code Balance} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Balance> {
+		
+		@Override
+		public Balance read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Balance balance = new Balance();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "currency": balance.currency = Codec.nextString(in); break;
+					case "cash": balance.cash = Codec.nextDouble(in); break;
+					case "marketValue": balance.marketValue = Codec.nextDouble(in); break;
+					case "totalEquity": balance.totalEquity = Codec.nextDouble(in); break;
+					case "buyingPower": balance.buyingPower = Codec.nextDouble(in); break;
+					case "maintenanceExcess": balance.maintenanceExcess = Codec.nextDouble(in); break;
+					case "isRealTime": balance.isRealTime = Codec.nextBoolean(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return balance;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Balance balance) throws IOException {
+			if(balance == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("currency").value(balance.currency);
+			out.name("cash").value(balance.cash);
+			out.name("marketValue").value(balance.marketValue);
+			out.name("totalEquity").value(balance.totalEquity);
+			out.name("buyingPower").value(balance.buyingPower);
+			out.name("maintenanceExcess").value(balance.maintenanceExcess);
+			out.name("isRealTime").value(balance.isRealTime);
+			out.endObject();
+		}
+	}
 }
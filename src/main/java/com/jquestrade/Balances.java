@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents the overall encompassing balance for an account.
  * Has methods to access per-currency blalances and combined balances.
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-balances">
@@ -80,4 +87,48 @@ public class Balances {
 		return sodCombinedBalances[1];
 	}
 	
-}
\ No newline at end of file
+	/** Reads and writes {@code Balances} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Balances> {
+		
+		@Override
+		public Balances read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Balances balances = new Balances();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "perCurrencyBalances": balances.perCurrencyBalances = Codec.nextArray(in, Codec.BALANCE, Balance[]::new); break;
+					case "combinedBalances": balances.combinedBalances = Codec.nextArray(in, Codec.BALANCE, Balance[]::new); break;
+					case "sodPerCurrencyBalances": balances.sodPerCurrencyBalances = Codec.nextArray(in, Codec.BALANCE, Balance[]::new); break;
+					case "sodCombinedBalances": balances.sodCombinedBalances = Codec.nextArray(in, Codec.BALANCE, Balance[]::new); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return balances;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Balances balances) throws IOException {
+			if(balances == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("perCurrencyBalances");
+			Codec.writeArray(out, balances.perCurrencyBalances, Codec.BALANCE);
+			out.name("combinedBalances");
+			Codec.writeArray(out, balances.combinedBalances, Codec.BALANCE);
+			out.name("sodPerCurrencyBalances");
+			Codec.writeArray(out, balances.sodPerCurrencyBalances, Codec.BALANCE);
+			out.name("sodCombinedBalances");
+			Codec.writeArray(out, balances.sodCombinedBalances, Codec.BALANCE);
+			out.endObject();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.jquestrade;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** Runs the many requests that make up one bulk call (such as a long candle range split into chunks) with a bounded number in flight,
+ * so that a call made of thousands of requests doesn't queue them all at once. The {@link RateLimiter} still decides how fast they are sent;
+ * this only bounds how many are waiting at a time. No thread waits on the requests: each one is started when an earlier one completes,
+ * on the thread that handled its response, which is the {@link Questrade#setExecutor(java.util.concurrent.Executor) executor} if one is set.
+ */
+final class BulkRequests {
+	private BulkRequests() {}
+
+	/** The most requests of one bulk call that are in flight at once. Matches the higher per-second rate limit, which is all that can be used anyway. */
+	static final int MAX_IN_FLIGHT = 20;
+
+	/** Starts the given requests, at most {@link #MAX_IN_FLIGHT} at a time.
+	 * @param requests Each element starts one request when called.
+	 * @return A future that completes with the results in the same order as the requests, or exceptionally as soon as one request fails.
+	 */
+	static <T> CompletableFuture<List<T>> run(List<Supplier<CompletableFuture<T>>> requests) {
+		int count = requests.size();
+		CompletableFuture<List<T>> done = new CompletableFuture<>();
+		if(count == 0) {
+			done.complete(Arrays.asList());
+			return done;
+		}
+
+		@SuppressWarnings("unchecked")
+		T[] results = (T[]) new Object[count];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger remaining = new AtomicInteger(count);
+
+		Runnable startNext = new Runnable() {
+			@Override
+			public void run() {
+				int index = next.getAndIncrement();
+				if(index >= count || done.isDone()) {
+					return;
+				}
+
+				CompletableFuture<T> future;
+				try {
+					future = requests.get(index).get();
+				} catch(RuntimeException e) {
+					done.completeExceptionally(e);
+					return;
+				}
+
+				future.whenComplete((result, e) -> {
+					if(e != null) {
+						done.completeExceptionally(e);
+						return;
+					}
+
+					results[index] = result;
+					if(remaining.decrementAndGet() == 0) {
+						done.complete(Arrays.asList(results));
+					} else {
+						run();
+					}
+				});
+			}
+		};
+
+		for(int i = 0; i < Math.min(count, MAX_IN_FLIGHT); i++) {
+			startNext.run();
+		}
+		return done;
+	}
+}
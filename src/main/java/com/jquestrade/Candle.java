@@ -1,5 +1,13 @@
 package com.jquestrade;
 
+import java.io.IOException;
+import java.time.Duration;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents historical market data in the form of 
  * OHLC candlesticks for a specified symbol.
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/market-calls/markets-candles-id">
@@ -9,6 +17,17 @@ package com.jquestrade;
 public class Candle {
 	private Candle() {}
 	
+	Candle(String start, String end, double low, double high, double open, double close, int volume, double VWAP) {
+		this.start = start;
+		this.end = end;
+		this.low = low;
+		this.high = high;
+		this.open = open;
+		this.close = close;
+		this.volume = volume;
+		this.VWAP = VWAP;
+	}
+	
 	private String start;
 	private String end;
 	private double low;
@@ -18,27 +37,46 @@ public class Candle {
 	private int volume;
 	private double VWAP;
 	
+	/** The value of the millisecond accessors before the timestamp they are parsed from is first asked for. */
+	private static final long UNPARSED = Long.MIN_VALUE;
+	private volatile long startMillis = UNPARSED;
+	private volatile long endMillis = UNPARSED;
+	
 	/** Represents an interval for a set of candles. 
 	 * @see <a href="https://www.questrade.com/api/documentation/rest-operations/enumerations/enumerations#historical-data-granularity">
 	 * The Historical Data Granularity (candle interval) documentation</a>
 	 */
 	public enum Interval {
-		OneMinute,
-		TwoMinutes,
-		ThreeMinutes,
-		FourMinutes,
-		FiveMinutes,
-		TenMinutes,
-		FifteenMinutes,
-		TwentyMinutes,
-		HalfHour,
-		OneHour,
-		TwoHours,
-		FourHours,
-		OneDay,
-		OneWeek,
-		OneMonth,
-		OneYear
+		OneMinute(Duration.ofMinutes(1)),
+		TwoMinutes(Duration.ofMinutes(2)),
+		ThreeMinutes(Duration.ofMinutes(3)),
+		FourMinutes(Duration.ofMinutes(4)),
+		FiveMinutes(Duration.ofMinutes(5)),
+		TenMinutes(Duration.ofMinutes(10)),
+		FifteenMinutes(Duration.ofMinutes(15)),
+		TwentyMinutes(Duration.ofMinutes(20)),
+		HalfHour(Duration.ofMinutes(30)),
+		OneHour(Duration.ofHours(1)),
+		TwoHours(Duration.ofHours(2)),
+		FourHours(Duration.ofHours(4)),
+		OneDay(Duration.ofDays(1)),
+		OneWeek(Duration.ofDays(7)),
+		OneMonth(Duration.ofDays(28)),
+		OneYear(Duration.ofDays(365));
+		
+		private final Duration minimumLength;
+		
+		Interval(Duration minimumLength) {
+			this.minimumLength = minimumLength;
+		}
+		
+		/** Returns the shortest time that one candle of this interval can span, so that a time period of {@code n} times this length
+		 * can't hold more than {@code n} candles.
+		 * @return The shortest length of a candle.
+		 */
+		Duration getMinimumLength() {
+			return minimumLength;
+		}
 	}
 	
 	/** Returns the candlestick start timestamp (in ISO format).
@@ -48,6 +86,19 @@ public class Candle {
 		return start;
 	}
 	
+	/** Returns the candlestick start time in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The candlestick start time in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getStart()
+	 */
+	public long getStartMillis() {
+		long millis = startMillis;
+		if(millis == UNPARSED) {
+			millis = start != null && !start.isEmpty() ? Timestamps.toEpochMilli(start) : 0;
+			startMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** Returns the candlestick end timestamp (in ISO format).
 	 * @return Candlestick end timestamp.
 	 */
@@ -55,6 +106,19 @@ public class Candle {
 		return end;
 	}
 	
+	/** Returns the candlestick end time in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The candlestick end time in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getEnd()
+	 */
+	public long getEndMillis() {
+		long millis = endMillis;
+		if(millis == UNPARSED) {
+			millis = end != null && !end.isEmpty() ? Timestamps.toEpochMilli(end) : 0;
+			endMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** Returns the lowest price during this candle.
 	 * @return The lowest price during this candle.
 	 */
@@ -98,4 +162,53 @@ public class Candle {
 	public double getVWAP() {
 		return VWAP;
 	}
+	
+	/** Reads and writes {@code Candle} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Candle> {
+		
+		@Override
+		public Candle read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Candle candle = new Candle();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "start": candle.start = Codec.nextString(in); break;
+					case "end": candle.end = Codec.nextString(in); break;
+					case "low": candle.low = Codec.nextDouble(in); break;
+					case "high": candle.high = Codec.nextDouble(in); break;
+					case "open": candle.open = Codec.nextDouble(in); break;
+					case "close": candle.close = Codec.nextDouble(in); break;
+					case "volume": candle.volume = Codec.nextInt(in); break;
+					case "VWAP": candle.VWAP = Codec.nextDouble(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return candle;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Candle candle) throws IOException {
+			if(candle == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("start").value(candle.start);
+			out.name("end").value(candle.end);
+			out.name("low").value(candle.low);
+			out.name("high").value(candle.high);
+			out.name("open").value(candle.open);
+			out.name("close").value(candle.close);
+			out.name("volume").value(candle.volume);
+			out.name("VWAP").value(candle.VWAP);
+			out.endObject();
+		}
+	}
 }
@@ -0,0 +1,251 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/** Historical market data for a symbol stored column by column: one primitive array per field, where index {@code i} of every
+ * array belongs to the {@code i}th candle. This takes a fraction of the memory of a {@code Candle[]} array and is much faster to scan,
+ * so it is suited to long ranges of candles. The decoder fills the arrays directly from the response, without creating {@link Candle} objects.<br><br>
+ *
+ * The arrays are returned without being copied, and all have a length of {@link #size()}. Timestamps are in milliseconds since the epoch.
+ * @see Questrade#getCandleSeries(int, java.time.ZonedDateTime, java.time.ZonedDateTime, Candle.Interval)
+ */
+public class CandleSeries {
+
+	private final long[] starts;
+	private final long[] ends;
+	private final double[] opens;
+	private final double[] highs;
+	private final double[] lows;
+	private final double[] closes;
+	private final double[] VWAPs;
+	private final long[] volumes;
+
+	private CandleSeries(int size) {
+		this(new long[size], new long[size], new double[size], new double[size], new double[size], new double[size], new double[size], new long[size]);
+	}
+
+	private CandleSeries(long[] starts, long[] ends, double[] opens, double[] highs, double[] lows, double[] closes, double[] VWAPs, long[] volumes) {
+		this.starts = starts;
+		this.ends = ends;
+		this.opens = opens;
+		this.highs = highs;
+		this.lows = lows;
+		this.closes = closes;
+		this.VWAPs = VWAPs;
+		this.volumes = volumes;
+	}
+
+	/** Returns the number of candles in the series.
+	 * @return The number of candles.
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/** Returns the start times of the candles, in milliseconds since the epoch.
+	 * @return The start times.
+	 */
+	public long[] getStarts() {
+		return starts;
+	}
+
+	/** Returns the end times of the candles, in milliseconds since the epoch.
+	 * @return The end times.
+	 */
+	public long[] getEnds() {
+		return ends;
+	}
+
+	/** Returns the opening prices of the candles.
+	 * @return The opening prices.
+	 */
+	public double[] getOpens() {
+		return opens;
+	}
+
+	/** Returns the highest prices during the candles.
+	 * @return The highest prices.
+	 */
+	public double[] getHighs() {
+		return highs;
+	}
+
+	/** Returns the lowest prices during the candles.
+	 * @return The lowest prices.
+	 */
+	public double[] getLows() {
+		return lows;
+	}
+
+	/** Returns the closing prices of the candles.
+	 * @return The closing prices.
+	 */
+	public double[] getCloses() {
+		return closes;
+	}
+
+	/** Returns the Volume Weighted Average Prices of the candles.
+	 * @return The VWAPs.
+	 */
+	public double[] getVWAPs() {
+		return VWAPs;
+	}
+
+	/** Returns the trading volumes of the candles.
+	 * @return The trading volumes.
+	 */
+	public long[] getVolumes() {
+		return volumes;
+	}
+
+	/** Joins series that are in time order into one. A candle at the boundary between two series can be in both,
+	 * so candles that don't start after the previous one are dropped.
+	 */
+	static CandleSeries concat(List<CandleSeries> parts) {
+		int total = 0;
+		for(CandleSeries part : parts) {
+			total += part != null ? part.size() : 0;
+		}
+
+		CandleSeries series = new CandleSeries(total);
+		int size = 0;
+		for(CandleSeries part : parts) {
+			if(part == null) {
+				continue;
+			}
+			for(int i = 0; i < part.size(); i++) {
+				if(size > 0 && part.starts[i] <= series.starts[size - 1]) {
+					continue;
+				}
+				series.starts[size] = part.starts[i];
+				series.ends[size] = part.ends[i];
+				series.opens[size] = part.opens[i];
+				series.highs[size] = part.highs[i];
+				series.lows[size] = part.lows[i];
+				series.closes[size] = part.closes[i];
+				series.VWAPs[size] = part.VWAPs[i];
+				series.volumes[size] = part.volumes[i];
+				size++;
+			}
+		}
+		return size == total ? series : series.trim(size);
+	}
+
+	/** Returns a copy with twice the capacity, for the decoder. */
+	private CandleSeries grow() {
+		int capacity = Math.max(size() * 2, 1);
+		return new CandleSeries(
+				Arrays.copyOf(starts, capacity), Arrays.copyOf(ends, capacity),
+				Arrays.copyOf(opens, capacity), Arrays.copyOf(highs, capacity), Arrays.copyOf(lows, capacity), Arrays.copyOf(closes, capacity),
+				Arrays.copyOf(VWAPs, capacity), Arrays.copyOf(volumes, capacity));
+	}
+
+	/** Returns a copy of the first {@code size} candles. */
+	private CandleSeries trim(int size) {
+		return new CandleSeries(
+				Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+				Arrays.copyOf(opens, size), Arrays.copyOf(highs, size), Arrays.copyOf(lows, size), Arrays.copyOf(closes, size),
+				Arrays.copyOf(VWAPs, size), Arrays.copyOf(volumes, size));
+	}
+
+	/** Reads the <b>GET markets/candles/:id</b> response (<code>{"candles": [...]}</code>) straight into a {@code CandleSeries}, growing
+	 * the arrays as needed, and writes a series back in the same format. Registered in {@link Codec}.
+	 */
+	static final class Adapter extends TypeAdapter<CandleSeries> {
+
+		/** Enough for most responses of one request. The Questrade API returns at most 2,000 candles at a time. */
+		private static final int INITIAL_CAPACITY = 256;
+
+		@Override
+		public CandleSeries read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+
+			CandleSeries series = null;
+			in.beginObject();
+			while(in.hasNext()) {
+				if(in.nextName().equals("candles") && in.peek() != JsonToken.NULL) {
+					series = readCandles(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return series;
+		}
+
+		private static CandleSeries readCandles(JsonReader in) throws IOException {
+			CandleSeries series = new CandleSeries(INITIAL_CAPACITY);
+			int size = 0;
+
+			in.beginArray();
+			while(in.hasNext()) {
+				if(size == series.size()) {
+					series = series.grow();
+				}
+
+				in.beginObject();
+				while(in.hasNext()) {
+					switch(in.nextName()) {
+						case "start": series.starts[size] = toMillis(Codec.nextString(in)); break;
+						case "end": series.ends[size] = toMillis(Codec.nextString(in)); break;
+						case "low": series.lows[size] = Codec.nextDouble(in); break;
+						case "high": series.highs[size] = Codec.nextDouble(in); break;
+						case "open": series.opens[size] = Codec.nextDouble(in); break;
+						case "close": series.closes[size] = Codec.nextDouble(in); break;
+						case "volume": series.volumes[size] = Codec.nextLong(in); break;
+						case "VWAP": series.VWAPs[size] = Codec.nextDouble(in); break;
+						default: in.skipValue();
+					}
+				}
+				in.endObject();
+				size++;
+			}
+			in.endArray();
+
+			return size == series.size() ? series : series.trim(size);
+		}
+
+		private static long toMillis(String timestamp) {
+			return timestamp != null ? Timestamps.toEpochMilli(timestamp) : 0;
+		}
+
+		@Override
+		public void write(JsonWriter out, CandleSeries series) throws IOException {
+			if(series == null) {
+				out.nullValue();
+				return;
+			}
+
+			out.beginObject();
+			out.name("candles").beginArray();
+			for(int i = 0; i < series.size(); i++) {
+				out.beginObject();
+				out.name("start").value(format(series.starts[i]));
+				out.name("end").value(format(series.ends[i]));
+				out.name("low").value(series.lows[i]);
+				out.name("high").value(series.highs[i]);
+				out.name("open").value(series.opens[i]);
+				out.name("close").value(series.closes[i]);
+				out.name("volume").value(series.volumes[i]);
+				out.name("VWAP").value(series.VWAPs[i]);
+				out.endObject();
+			}
+			out.endArray();
+			out.endObject();
+		}
+
+		private static String format(long millis) {
+			return Timestamps.format(millis, 0);
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jquestrade.Candle.Interval;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+import com.jquestrade.exceptions.TimeRangeException;
+
+/** A local store of candles that answers range queries from disk and only requests the parts of a range that it hasn't seen before.
+ * Each (symbol, interval) pair has its own memory-mapped file of fixed-width records sorted by start time, and a small sidecar file that
+ * records which time spans have already been retrieved, so that spans without any candles (nights, weekends, holidays) aren't requested again.<br><br>
+ *
+ * Candles that haven't ended yet when they are retrieved (such as today's {@code OneDay} candle) are returned but not stored,
+ * and their span is requested again next time.<br><br>
+ *
+ * Example usage:<br>
+ * {@code CandleStore store = new CandleStore(q, Paths.get("candles"));}<br>
+ * {@code Candle[] candles = store.getCandles(8049, start, end, Interval.OneMinute); // Only the new minutes are requested}
+ */
+public class CandleStore {
+
+	/** The size of a record: start, end, open, high, low, close, VWAP, volume and the UTC offset of the timestamps. */
+	static final int RECORD_SIZE = 64;
+
+	private static final int START = 0;
+	private static final int END = 8;
+	private static final int OPEN = 16;
+	private static final int HIGH = 24;
+	private static final int LOW = 32;
+	private static final int CLOSE = 40;
+	private static final int VWAP = 48;
+	private static final int VOLUME = 56;
+	private static final int OFFSET = 60;
+
+	private final Questrade questrade;
+	private final Path directory;
+
+	/** One lock per (symbol, interval) pair, so that different pairs can be read and filled at the same time. */
+	private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+	/** Creates a store in the given directory, creating the directory if it doesn't exist.
+	 * @param questrade The activated {@code Questrade} object to retrieve missing candles with.
+	 * @param directory The directory that holds the store's files.
+	 * @throws IOException If the directory can't be created.
+	 */
+	public CandleStore(Questrade questrade, Path directory) throws IOException {
+		this.questrade = questrade;
+		this.directory = Files.createDirectories(directory);
+	}
+
+	/** Returns the candles for a symbol that start within the given time period, requesting only the spans of the period that aren't stored yet.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @param startTime The beginning of the time period to get the candles for.
+	 * @param endTime The end of the time period to get the candles for. Candles that start at this time are not included.
+	 * @param interval The time between the candles.
+	 * @return The candles, sorted by start time.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws TimeRangeException If the startTime is after the endTime.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 * @throws IOException If the store's files can't be read or written, or a missing span couldn't be retrieved.
+	 */
+	public Candle[] getCandles(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) throws RefreshTokenException, IOException {
+		if(startTime.isAfter(endTime)) {
+			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		}
+
+		long start = startTime.toInstant().toEpochMilli();
+		long end = endTime.toInstant().toEpochMilli();
+
+		String name = symbolId + "-" + interval;
+		Path data = directory.resolve(name + ".candles");
+		Path coverageFile = directory.resolve(name + ".coverage");
+
+		ReentrantLock lock = locks.computeIfAbsent(name, key -> new ReentrantLock());
+		lock.lock();
+		try {
+			List<long[]> coverage = readCoverage(coverageFile);
+			List<Candle> unfinished = new ArrayList<>();
+			boolean covered = false;
+
+			for(long[] gap : gaps(coverage, start, end)) {
+				long retrievedAt = System.currentTimeMillis();
+				if(gap[0] >= retrievedAt) {
+					continue; // Nothing to retrieve from the future
+				}
+
+				Candle[] candles = questrade.getCandles(symbolId, atMillis(gap[0], startTime), atMillis(gap[1], startTime), interval);
+				if(candles == null) {
+					throw new IOException("The candles for symbol " + symbolId + " couldn't be retrieved");
+				}
+
+				long coveredUntil = Math.min(gap[1], retrievedAt);
+				List<Candle> finished = new ArrayList<>(candles.length);
+				for(Candle candle : candles) {
+					if(candle.getEndMillis() > retrievedAt) {
+						unfinished.add(candle);
+						coveredUntil = Math.min(coveredUntil, candle.getStartMillis());
+					} else {
+						finished.add(candle);
+					}
+				}
+
+				store(data, finished);
+				if(coveredUntil > gap[0]) {
+					addCoverage(coverage, gap[0], coveredUntil);
+					covered = true;
+				}
+			}
+
+			if(covered) {
+				writeCoverage(coverageFile, coverage);
+			}
+
+			List<Candle> candles = read(data, start, end);
+			for(Candle candle : unfinished) {
+				long candleStart = candle.getStartMillis();
+				if(candleStart >= start && candleStart < end) {
+					candles.add(candle);
+				}
+			}
+			return candles.toArray(new Candle[candles.size()]);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns the spans of [start, end) that aren't covered, in order. */
+	private static List<long[]> gaps(List<long[]> coverage, long start, long end) {
+		List<long[]> gaps = new ArrayList<>();
+		long cursor = start;
+
+		for(long[] span : coverage) {
+			if(span[1] <= cursor) {
+				continue;
+			} else if(span[0] >= end) {
+				break;
+			}
+
+			if(span[0] > cursor) {
+				gaps.add(new long[] {cursor, span[0]});
+			}
+			cursor = Math.max(cursor, span[1]);
+		}
+
+		if(cursor < end) {
+			gaps.add(new long[] {cursor, end});
+		}
+		return gaps;
+	}
+
+	/** Adds [start, end) to the coverage, merging it with the spans that it overlaps or touches. */
+	private static void addCoverage(List<long[]> coverage, long start, long end) {
+		coverage.add(new long[] {start, end});
+		coverage.sort(Comparator.comparingLong(span -> span[0]));
+
+		List<long[]> merged = new ArrayList<>(coverage.size());
+		for(long[] span : coverage) {
+			long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+			if(last != null && span[0] <= last[1]) {
+				last[1] = Math.max(last[1], span[1]);
+			} else {
+				merged.add(span);
+			}
+		}
+
+		coverage.clear();
+		coverage.addAll(merged);
+	}
+
+	private static List<long[]> readCoverage(Path file) throws IOException {
+		List<long[]> coverage = new ArrayList<>();
+		if(!Files.exists(file)) {
+			return coverage;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		while(buffer.remaining() >= 16) {
+			coverage.add(new long[] {buffer.getLong(), buffer.getLong()});
+		}
+		return coverage;
+	}
+
+	private static void writeCoverage(Path file, List<long[]> coverage) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(coverage.size() * 16);
+		for(long[] span : coverage) {
+			buffer.putLong(span[0]).putLong(span[1]);
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, buffer.array());
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/** Adds candles to a data file. Candles that come after everything in the file are appended in place; otherwise the file is rewritten
+	 * with the new candles merged in, replacing any stored candles with the same start time.
+	 */
+	private static void store(Path file, List<Candle> candles) throws IOException {
+		if(candles.isEmpty()) {
+			return;
+		}
+
+		ByteBuffer added = ByteBuffer.allocate(candles.size() * RECORD_SIZE);
+		candles.stream()
+			.sorted(Comparator.comparingLong(Candle::getStartMillis))
+			.forEach(candle -> encode(added, candle));
+		added.flip();
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long size = channel.size() - channel.size() % RECORD_SIZE;
+			long lastStart = size == 0 ? Long.MIN_VALUE : channel.map(FileChannel.MapMode.READ_ONLY, size - RECORD_SIZE, RECORD_SIZE).getLong(START);
+
+			if(added.getLong(START) > lastStart) {
+				channel.map(FileChannel.MapMode.READ_WRITE, size, added.remaining()).put(added);
+				return;
+			}
+
+			merge(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), added);
+		}
+	}
+
+	/** Rewrites a data file with the records of both buffers, in order of start time. */
+	private static void merge(Path file, ByteBuffer stored, ByteBuffer added) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) stored.remaining() + added.remaining());
+
+			while(stored.hasRemaining() || added.hasRemaining()) {
+				long storedStart = stored.hasRemaining() ? stored.getLong(stored.position() + START) : Long.MAX_VALUE;
+				long addedStart = added.hasRemaining() ? added.getLong(added.position() + START) : Long.MAX_VALUE;
+
+				if(storedStart == addedStart) {
+					stored.position(stored.position() + RECORD_SIZE); // The new candle replaces the stored one
+				} else if(storedStart < addedStart) {
+					copyRecord(stored, out);
+				} else {
+					copyRecord(added, out);
+				}
+			}
+
+			out.force();
+			channel.truncate(out.position());
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void copyRecord(ByteBuffer from, ByteBuffer to) {
+		ByteBuffer record = from.slice();
+		record.limit(RECORD_SIZE);
+		to.put(record);
+		from.position(from.position() + RECORD_SIZE);
+	}
+
+	/** Returns the stored candles that start within [start, end). */
+	private static List<Candle> read(Path file, long start, long end) throws IOException {
+		List<Candle> candles = new ArrayList<>();
+		if(!Files.exists(file)) {
+			return candles;
+		}
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size() - channel.size() % RECORD_SIZE;
+			if(size == 0) {
+				return candles;
+			}
+			MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+			// Binary search for the first record that starts at or after the start
+			int low = 0;
+			int high = (int) (size / RECORD_SIZE);
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				if(records.getLong(middle * RECORD_SIZE + START) < start) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			for(int position = low * RECORD_SIZE; position < size; position += RECORD_SIZE) {
+				if(records.getLong(position + START) >= end) {
+					break;
+				}
+				candles.add(decode(records, position));
+			}
+		}
+		return candles;
+	}
+
+	private static void encode(ByteBuffer buffer, Candle candle) {
+		buffer.putLong(candle.getStartMillis());
+		buffer.putLong(candle.getEndMillis());
+		buffer.putDouble(candle.getOpen());
+		buffer.putDouble(candle.getHigh());
+		buffer.putDouble(candle.getLow());
+		buffer.putDouble(candle.getClose());
+		buffer.putDouble(candle.getVWAP());
+		buffer.putInt(candle.getVolume());
+		buffer.putInt(Timestamps.offsetSeconds(candle.getStart()));
+	}
+
+	private static Candle decode(ByteBuffer buffer, int position) {
+		int offset = buffer.getInt(position + OFFSET);
+		return new Candle(
+			Timestamps.format(buffer.getLong(position + START), offset),
+			Timestamps.format(buffer.getLong(position + END), offset),
+			buffer.getDouble(position + LOW),
+			buffer.getDouble(position + HIGH),
+			buffer.getDouble(position + OPEN),
+			buffer.getDouble(position + CLOSE),
+			buffer.getInt(position + VOLUME),
+			buffer.getDouble(position + VWAP));
+	}
+
+	private static ZonedDateTime atMillis(long millis, ZonedDateTime zoneOf) {
+		return Instant.ofEpochMilli(millis).atZone(zoneOf.getZone());
+	}
+}
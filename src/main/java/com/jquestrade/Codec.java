@@ -0,0 +1,356 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/** The JSON codec shared by all {@code Questrade} objects. Every model class has a hand-written {@code Adapter} that reads and writes
+ * its fields directly, so decoding a response needs neither reflection nor an adapter lookup. The response envelopes
+ * (such as <code>{"quotes": [...]}</code>) are decoded straight into arrays by the adapters in this class.
+ */
+final class Codec {
+	private Codec() {}
+
+	static final TypeAdapter<Account> ACCOUNT = new Account.Adapter();
+	static final TypeAdapter<Activity> ACTIVITY = new Activity.Adapter();
+	static final TypeAdapter<Authorization> AUTHORIZATION = new Authorization.Adapter();
+	static final TypeAdapter<Balance> BALANCE = new Balance.Adapter();
+	static final TypeAdapter<Balances> BALANCES = new Balances.Adapter();
+	static final TypeAdapter<Candle> CANDLE = new Candle.Adapter();
+	static final TypeAdapter<CandleSeries> CANDLE_SERIES = new CandleSeries.Adapter();
+	static final TypeAdapter<Execution> EXECUTION = new Execution.Adapter();
+	static final TypeAdapter<Market> MARKET = new Market.Adapter();
+	static final TypeAdapter<Order> ORDER = new Order.Adapter();
+	static final TypeAdapter<Position> POSITION = new Position.Adapter();
+	static final TypeAdapter<Quote> QUOTE = new Quote.Adapter();
+	static final TypeAdapter<Symbol> SYMBOL = new Symbol.Adapter();
+	static final TypeAdapter<SymbolInfo> SYMBOL_INFO = new SymbolInfo.Adapter();
+
+	/* Adapters for the response envelopes of each endpoint. */
+
+	static final TypeAdapter<Activity[]> ACTIVITIES = new ArrayField<>("activities", ACTIVITY, Activity[]::new);
+	static final TypeAdapter<Execution[]> EXECUTIONS = new ArrayField<>("executions", EXECUTION, Execution[]::new);
+	static final TypeAdapter<Order[]> ORDERS = new ArrayField<>("orders", ORDER, Order[]::new);
+	static final TypeAdapter<Position[]> POSITIONS = new ArrayField<>("positions", POSITION, Position[]::new);
+	static final TypeAdapter<Candle[]> CANDLES = new ArrayField<>("candles", CANDLE, Candle[]::new);
+	static final TypeAdapter<Market[]> MARKETS = new ArrayField<>("markets", MARKET, Market[]::new);
+	static final TypeAdapter<Symbol[]> SYMBOLS = new ArrayField<>("symbols", SYMBOL, Symbol[]::new);
+	static final TypeAdapter<SymbolInfo[]> SYMBOL_INFOS = new ArrayField<>("symbols", SYMBOL_INFO, SymbolInfo[]::new);
+	static final TypeAdapter<Quote[]> QUOTES = new ArrayField<>("quotes", QUOTE, Quote[]::new);
+
+	/** Decodes the <b>GET accounts</b> response, injecting the userId into each account for easier access. */
+	static final TypeAdapter<Account[]> ACCOUNTS = new TypeAdapter<Account[]>() {
+		@Override
+		public Account[] read(JsonReader in) throws IOException {
+			Account[] accounts = null;
+			int userId = 0;
+
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "accounts": accounts = nextArray(in, ACCOUNT, Account[]::new); break;
+					case "userId": userId = nextInt(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+
+			if(accounts != null) {
+				for(int i = 0; i < accounts.length; i++) {
+					accounts[i].setUserId(userId);
+				}
+			}
+			return accounts;
+		}
+
+		@Override
+		public void write(JsonWriter out, Account[] accounts) throws IOException {
+			out.beginObject();
+			out.name("accounts");
+			writeArray(out, accounts, ACCOUNT);
+			out.endObject();
+		}
+	};
+
+	/** Decodes the <b>GET time</b> response. */
+	static final TypeAdapter<ZonedDateTime> TIME = new TypeAdapter<ZonedDateTime>() {
+		@Override
+		public ZonedDateTime read(JsonReader in) throws IOException {
+			String time = null;
+
+			in.beginObject();
+			while(in.hasNext()) {
+				if(in.nextName().equals("time")) {
+					time = nextString(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+
+			return time != null ? ZonedDateTime.parse(time) : null;
+		}
+
+		@Override
+		public void write(JsonWriter out, ZonedDateTime time) throws IOException {
+			out.beginObject();
+			out.name("time").value(time != null ? time.toString() : null);
+			out.endObject();
+		}
+	};
+
+	/** Decodes the <b>GET markets/quotes</b> response when the quotes are to be streamed, which only has the port to stream them from. */
+	static final TypeAdapter<Integer> STREAM_PORT = new TypeAdapter<Integer>() {
+		@Override
+		public Integer read(JsonReader in) throws IOException {
+			Integer port = null;
+
+			in.beginObject();
+			while(in.hasNext()) {
+				if(in.nextName().equals("streamPort")) {
+					port = nextInteger(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return port;
+		}
+
+		@Override
+		public void write(JsonWriter out, Integer port) throws IOException {
+			out.beginObject();
+			out.name("streamPort").value(port);
+			out.endObject();
+		}
+	};
+
+	/** Decodes the error responses returned by the Questrade API servers. */
+	static final TypeAdapter<Questrade.Error> ERROR = new TypeAdapter<Questrade.Error>() {
+		@Override
+		public Questrade.Error read(JsonReader in) throws IOException {
+			Questrade.Error error = new Questrade.Error();
+
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "code": error.code = nextInt(in); break;
+					case "message": error.message = nextString(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return error;
+		}
+
+		@Override
+		public void write(JsonWriter out, Questrade.Error error) throws IOException {
+			out.beginObject();
+			out.name("code").value(error.code);
+			out.name("message").value(error.message);
+			out.endObject();
+		}
+	};
+
+	/** A {@code Gson} object with all of the model adapters registered, for when a model object needs to be converted
+	 * to or from JSON outside of a request (such as when it is saved to a file).
+	 */
+	static final Gson GSON = new GsonBuilder()
+			.registerTypeAdapter(Account.class, ACCOUNT)
+			.registerTypeAdapter(Activity.class, ACTIVITY)
+			.registerTypeAdapter(Authorization.class, AUTHORIZATION)
+			.registerTypeAdapter(Balance.class, BALANCE)
+			.registerTypeAdapter(Balances.class, BALANCES)
+			.registerTypeAdapter(Candle.class, CANDLE)
+			.registerTypeAdapter(CandleSeries.class, CANDLE_SERIES)
+			.registerTypeAdapter(Execution.class, EXECUTION)
+			.registerTypeAdapter(Market.class, MARKET)
+			.registerTypeAdapter(Order.class, ORDER)
+			.registerTypeAdapter(Position.class, POSITION)
+			.registerTypeAdapter(Quote.class, QUOTE)
+			.registerTypeAdapter(Symbol.class, SYMBOL)
+			.registerTypeAdapter(SymbolInfo.class, SYMBOL_INFO)
+			.create();
+
+	/** Gson's built-in adapter for untyped values, used for the few fields declared as {@code Object}. It does not use reflection. */
+	private static final TypeAdapter<Object> OBJECT = GSON.getAdapter(Object.class);
+
+	/** Decodes an object that only has one relevant field, an array, straight into that array. Eg: <code>{"quotes": [...]}</code> */
+	private static final class ArrayField<T> extends TypeAdapter<T[]> {
+		private final String name;
+		private final TypeAdapter<T> elementAdapter;
+		private final IntFunction<T[]> arrayConstructor;
+
+		ArrayField(String name, TypeAdapter<T> elementAdapter, IntFunction<T[]> arrayConstructor) {
+			this.name = name;
+			this.elementAdapter = elementAdapter;
+			this.arrayConstructor = arrayConstructor;
+		}
+
+		@Override
+		public T[] read(JsonReader in) throws IOException {
+			T[] array = null;
+
+			in.beginObject();
+			while(in.hasNext()) {
+				if(in.nextName().equals(name)) {
+					array = nextArray(in, elementAdapter, arrayConstructor);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return array;
+		}
+
+		@Override
+		public void write(JsonWriter out, T[] array) throws IOException {
+			out.beginObject();
+			out.name(name);
+			writeArray(out, array, elementAdapter);
+			out.endObject();
+		}
+	}
+
+	/* Null-tolerant readers used by the model adapters. A JSON null leaves a primitive field at its default value,
+	 * the same as reflective Gson did. */
+
+	static String nextString(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextString();
+	}
+
+	static int nextInt(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return 0;
+		}
+		return in.nextInt();
+	}
+
+	static long nextLong(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return 0;
+		}
+		return in.nextLong();
+	}
+
+	static double nextDouble(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return 0;
+		}
+		return in.nextDouble();
+	}
+
+	static boolean nextBoolean(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return false;
+		}
+		return in.nextBoolean();
+	}
+
+	static Integer nextInteger(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextInt();
+	}
+
+	static Double nextDoubleObject(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextDouble();
+	}
+
+	static String[] nextStringArray(JsonReader in) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		List<String> list = new ArrayList<>();
+		in.beginArray();
+		while(in.hasNext()) {
+			list.add(nextString(in));
+		}
+		in.endArray();
+		return list.toArray(new String[list.size()]);
+	}
+
+	static Object nextObject(JsonReader in) throws IOException {
+		return OBJECT.read(in);
+	}
+
+	static Object[] nextObjectArray(JsonReader in) throws IOException {
+		return nextArray(in, OBJECT, Object[]::new);
+	}
+
+	static <T> T[] nextArray(JsonReader in, TypeAdapter<T> elementAdapter, IntFunction<T[]> arrayConstructor) throws IOException {
+		if(in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		List<T> list = new ArrayList<>();
+		in.beginArray();
+		while(in.hasNext()) {
+			list.add(elementAdapter.read(in));
+		}
+		in.endArray();
+		return list.toArray(arrayConstructor.apply(list.size()));
+	}
+
+	/* Writers used by the model adapters. */
+
+	static void writeStringArray(JsonWriter out, String[] array) throws IOException {
+		if(array == null) {
+			out.nullValue();
+			return;
+		}
+
+		out.beginArray();
+		for(String value : array) {
+			out.value(value);
+		}
+		out.endArray();
+	}
+
+	static void writeObject(JsonWriter out, Object value) throws IOException {
+		OBJECT.write(out, value);
+	}
+
+	static void writeObjectArray(JsonWriter out, Object[] array) throws IOException {
+		writeArray(out, array, OBJECT);
+	}
+
+	static <T> void writeArray(JsonWriter out, T[] array, TypeAdapter<T> elementAdapter) throws IOException {
+		if(array == null) {
+			out.nullValue();
+			return;
+		}
+
+		out.beginArray();
+		for(T element : array) {
+			elementAdapter.write(out, element);
+		}
+		out.endArray();
+	}
+}
@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents executions for a specific account. 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-executions">
  * The executions properties documentation</a>
@@ -28,6 +35,10 @@ public class Execution {
 	private int canadianExecutionFee;
 	private int parentId;
 	
+	/** The value of the millisecond accessors before the timestamp they are parsed from is first asked for. */
+	private static final long UNPARSED = Long.MIN_VALUE;
+	private volatile long timestampMillis = UNPARSED;
+	
 	/** Returns the symbol of the security involved in the execution.
 	 * @return The symbol of the security involved in the execution.
 	 */
@@ -102,6 +113,19 @@ public class Execution {
 		return timestamp;
 	}
 	
+	/** Returns the execution time in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The execution time in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getTimestamp()
+	 */
+	public long getTimestampMillis() {
+		long millis = timestampMillis;
+		if(millis == UNPARSED) {
+			millis = timestamp != null && !timestamp.isEmpty() ? Timestamps.toEpochMilli(timestamp) : 0;
+			timestampMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** Returns manual notes for the execution that may have been entered by Trade Desk staff.
 	 * This is usually blank.
 	 * @return Manual execution notes.
@@ -164,4 +188,75 @@ public class Execution {
 	public int getParentId() {
 		return parentId;
 	}
+	
+	/** Reads and writes {@code Execution} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Execution> {
+		
+		@Override
+		public Execution read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Execution execution = new Execution();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "symbol": execution.symbol = Codec.nextString(in); break;
+					case "symbolId": execution.symbolId = Codec.nextInt(in); break;
+					case "quantity": execution.quantity = Codec.nextInt(in); break;
+					case "side": execution.side = Codec.nextString(in); break;
+					case "price": execution.price = Codec.nextDouble(in); break;
+					case "id": execution.id = Codec.nextDouble(in); break;
+					case "orderId": execution.orderId = Codec.nextInt(in); break;
+					case "orderChainId": execution.orderChainId = Codec.nextInt(in); break;
+					case "exchangeExecId": execution.exchangeExecId = Codec.nextString(in); break;
+					case "timestamp": execution.timestamp = Codec.nextString(in); break;
+					case "notes": execution.notes = Codec.nextString(in); break;
+					case "venue": execution.venue = Codec.nextString(in); break;
+					case "totalCost": execution.totalCost = Codec.nextDouble(in); break;
+					case "orderPlacementCommission": execution.orderPlacementCommission = Codec.nextDouble(in); break;
+					case "commission": execution.commission = Codec.nextDouble(in); break;
+					case "executionFee": execution.executionFee = Codec.nextDouble(in); break;
+					case "secFee": execution.secFee = Codec.nextDouble(in); break;
+					case "canadianExecutionFee": execution.canadianExecutionFee = Codec.nextInt(in); break;
+					case "parentId": execution.parentId = Codec.nextInt(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return execution;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Execution execution) throws IOException {
+			if(execution == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("symbol").value(execution.symbol);
+			out.name("symbolId").value(execution.symbolId);
+			out.name("quantity").value(execution.quantity);
+			out.name("side").value(execution.side);
+			out.name("price").value(execution.price);
+			out.name("id").value(execution.id);
+			out.name("orderId").value(execution.orderId);
+			out.name("orderChainId").value(execution.orderChainId);
+			out.name("exchangeExecId").value(execution.exchangeExecId);
+			out.name("timestamp").value(execution.timestamp);
+			out.name("notes").value(execution.notes);
+			out.name("venue").value(execution.venue);
+			out.name("totalCost").value(execution.totalCost);
+			out.name("orderPlacementCommission").value(execution.orderPlacementCommission);
+			out.name("commission").value(execution.commission);
+			out.name("executionFee").value(execution.executionFee);
+			out.name("secFee").value(execution.secFee);
+			out.name("canadianExecutionFee").value(execution.canadianExecutionFee);
+			out.name("parentId").value(execution.parentId);
+			out.endObject();
+		}
+	}
 }
@@ -0,0 +1,71 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/** A {@link Transport} backed by a {@link HttpClient}. The client keeps its connections open between requests
+ * (using HTTP/2 when the server supports it, otherwise HTTP/1.1 keep-alive), so only the first request to an API server
+ * pays for the TCP and TLS handshakes.
+ */
+public class HttpClientTransport implements Transport {
+
+	/** The transport used by every {@code Questrade} object that hasn't been given another one. */
+	private static final HttpClientTransport SHARED = new HttpClientTransport(builder().build());
+
+	private final HttpClient client;
+
+	/** Creates a transport that sends its requests with the given client. Useful for when a proxy,
+	 * SSL context, executor, etc. needs to be configured.
+	 * @param client The client to send the requests with.
+	 */
+	public HttpClientTransport(HttpClient client) {
+		this.client = client;
+	}
+
+	/** Creates a transport configured like the shared one, whose client runs its work (such as handling responses) on the given executor,
+	 * instead of on a thread pool of its own. Such as {@link QuestradeExecutors#virtualThreads()}.
+	 * @param executor The executor for the client to use.
+	 * @return The new transport.
+	 */
+	public static HttpClientTransport create(Executor executor) {
+		return new HttpClientTransport(builder().executor(executor).build());
+	}
+
+	private static HttpClient.Builder builder() {
+		return HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofSeconds(30));
+	}
+
+	/** Returns the transport that is shared by all {@code Questrade} objects in the JVM, unless they were given another one using
+	 * {@link Questrade#setTransport(Transport)}.
+	 * @return The shared transport.
+	 */
+	public static HttpClientTransport getShared() {
+		return SHARED;
+	}
+
+	/** Returns the client that this transport sends its requests with.
+	 * @return The client.
+	 */
+	public HttpClient getClient() {
+		return client;
+	}
+
+	@Override
+	public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+		return client.send(request, BodyHandlers.ofInputStream());
+	}
+	
+	@Override
+	public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+		return client.sendAsync(request, BodyHandlers.ofInputStream());
+	}
+}
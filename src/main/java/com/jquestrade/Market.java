@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a market (e.g: TSX, NYSE, NASDAQ, etc) 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/market-calls/markets">
  * The market properties documentation</a>
@@ -105,4 +112,65 @@ public class Market {
 		return snapQuotesLimit;
 	}
 	
+	/** Reads and writes {@code Market} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Market> {
+		
+		@Override
+		public Market read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Market market = new Market();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "name": market.name = Codec.nextString(in); break;
+					case "tradingVenues": market.tradingVenues = Codec.nextStringArray(in); break;
+					case "defaultTradingVenue": market.defaultTradingVenue = Codec.nextString(in); break;
+					case "primaryOrderRoutes": market.primaryOrderRoutes = Codec.nextStringArray(in); break;
+					case "secondaryOrderRoutes": market.secondaryOrderRoutes = Codec.nextStringArray(in); break;
+					case "level1Feeds": market.level1Feeds = Codec.nextStringArray(in); break;
+					case "level2Feeds": market.level2Feeds = Codec.nextStringArray(in); break;
+					case "extendedStartTime": market.extendedStartTime = Codec.nextString(in); break;
+					case "startTime": market.startTime = Codec.nextString(in); break;
+					case "endTime": market.endTime = Codec.nextString(in); break;
+					case "extendedEndTime": market.extendedEndTime = Codec.nextString(in); break;
+					case "snapQuotesLimit": market.snapQuotesLimit = Codec.nextInt(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return market;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Market market) throws IOException {
+			if(market == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("name").value(market.name);
+			out.name("tradingVenues");
+			Codec.writeStringArray(out, market.tradingVenues);
+			out.name("defaultTradingVenue").value(market.defaultTradingVenue);
+			out.name("primaryOrderRoutes");
+			Codec.writeStringArray(out, market.primaryOrderRoutes);
+			out.name("secondaryOrderRoutes");
+			Codec.writeStringArray(out, market.secondaryOrderRoutes);
+			out.name("level1Feeds");
+			Codec.writeStringArray(out, market.level1Feeds);
+			out.name("level2Feeds");
+			Codec.writeStringArray(out, market.level2Feeds);
+			out.name("extendedStartTime").value(market.extendedStartTime);
+			out.name("startTime").value(market.startTime);
+			out.name("endTime").value(market.endTime);
+			out.name("extendedEndTime").value(market.extendedEndTime);
+			out.name("snapQuotesLimit").value(market.snapQuotesLimit);
+			out.endObject();
+		}
+	}
 }
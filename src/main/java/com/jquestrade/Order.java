@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents an order. 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-orders">
  * The order properties documentation</a>
@@ -61,6 +68,11 @@ public class Order {
 	private int orderGroupId;
 	private String orderClass;
 	private boolean isCrossZero;
+	
+	/** The value of the millisecond accessors before the timestamp they are parsed from is first asked for. */
+	private static final long UNPARSED = Long.MIN_VALUE;
+	private volatile long creationTimeMillis = UNPARSED;
+	private volatile long updateTimeMillis = UNPARSED;
 
 	/** Returns the internal order identifier.
 	 * @return The internal order identifier.
@@ -237,6 +249,19 @@ public class Order {
 		return creationTime;
 	}
 	
+	/** Returns the time that the order was created in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The time that the order was created in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getCreationTime()
+	 */
+	public long getCreationTimeMillis() {
+		long millis = creationTimeMillis;
+		if(millis == UNPARSED) {
+			millis = creationTime != null && !creationTime.isEmpty() ? Timestamps.toEpochMilli(creationTime) : 0;
+			creationTimeMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** Returns the time of the order's last update.
 	 * @return The time of the order's last update.
 	 */
@@ -244,6 +269,19 @@ public class Order {
 		return updateTime;
 	}
 	
+	/** Returns the time of the order's last update in milliseconds since the epoch. The timestamp is parsed the first time this is called.
+	 * @return The time of the order's last update in milliseconds since the epoch, or {@code 0} if there is none.
+	 * @see #getUpdateTime()
+	 */
+	public long getUpdateTimeMillis() {
+		long millis = updateTimeMillis;
+		if(millis == UNPARSED) {
+			millis = updateTime != null && !updateTime.isEmpty() ? Timestamps.toEpochMilli(updateTime) : 0;
+			updateTimeMillis = millis;
+		}
+		return millis;
+	}
+	
 	/** Returns notes that may have been manually added by Questrade staff.
 	 * @return Notes that may have been manually added by Questrade staff.
 	 */
@@ -368,4 +406,122 @@ public class Order {
 	public boolean isCrossZero() {
 		return isCrossZero;
 	}
+	
+	/** Reads and writes {@code Order} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Order> {
+		
+		@Override
+		public Order read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Order order = new Order();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "id": order.id = Codec.nextInt(in); break;
+					case "symbol": order.symbol = Codec.nextString(in); break;
+					case "symbolId": order.symbolId = Codec.nextInt(in); break;
+					case "totalQuantity": order.totalQuantity = Codec.nextInt(in); break;
+					case "openQuantity": order.openQuantity = Codec.nextInt(in); break;
+					case "filledQuantity": order.filledQuantity = Codec.nextInteger(in); break;
+					case "side": order.side = Codec.nextString(in); break;
+					case "orderType": order.orderType = Codec.nextString(in); break;
+					case "limitPrice": order.limitPrice = Codec.nextDouble(in); break;
+					case "stopPrice": order.stopPrice = Codec.nextDoubleObject(in); break;
+					case "isAllOrNone": order.isAllOrNone = Codec.nextBoolean(in); break;
+					case "isAnonoymous": order.isAnonoymous = Codec.nextBoolean(in); break;
+					case "icebergQuantity": order.icebergQuantity = Codec.nextInteger(in); break;
+					case "minQuantity": order.minQuantity = Codec.nextInteger(in); break;
+					case "avgExecPrice": order.avgExecPrice = Codec.nextDoubleObject(in); break;
+					case "lastExecPrice": order.lastExecPrice = Codec.nextDoubleObject(in); break;
+					case "source": order.source = Codec.nextString(in); break;
+					case "timeInForce": order.timeInForce = Codec.nextString(in); break;
+					case "gtdDate": order.gtdDate = Codec.nextString(in); break;
+					case "state": order.state = Codec.nextString(in); break;
+					case "rejectionReason": order.rejectionReason = Codec.nextString(in); break;
+					case "chainId": order.chainId = Codec.nextInt(in); break;
+					case "creationTime": order.creationTime = Codec.nextString(in); break;
+					case "updateTime": order.updateTime = Codec.nextString(in); break;
+					case "notes": order.notes = Codec.nextString(in); break;
+					case "primaryRoute": order.primaryRoute = Codec.nextString(in); break;
+					case "secondaryRoute": order.secondaryRoute = Codec.nextString(in); break;
+					case "orderRoute": order.orderRoute = Codec.nextString(in); break;
+					case "venueHoldingOrder": order.venueHoldingOrder = Codec.nextString(in); break;
+					case "comissionCharged": order.comissionCharged = Codec.nextDoubleObject(in); break;
+					case "exchangeOrderId": order.exchangeOrderId = Codec.nextString(in); break;
+					case "isSignificantShareHolder": order.isSignificantShareHolder = Codec.nextBoolean(in); break;
+					case "isInsider": order.isInsider = Codec.nextBoolean(in); break;
+					case "isLimitOffsetInDollar": order.isLimitOffsetInDollar = Codec.nextBoolean(in); break;
+					case "userId": order.userId = Codec.nextInt(in); break;
+					case "placementCommission": order.placementCommission = Codec.nextDoubleObject(in); break;
+					case "legs": order.legs = Codec.nextObjectArray(in); break;
+					case "strategyType": order.strategyType = Codec.nextString(in); break;
+					case "triggerStopPrice": order.triggerStopPrice = Codec.nextDoubleObject(in); break;
+					case "orderGroupId": order.orderGroupId = Codec.nextInt(in); break;
+					case "orderClass": order.orderClass = Codec.nextString(in); break;
+					case "isCrossZero": order.isCrossZero = Codec.nextBoolean(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return order;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Order order) throws IOException {
+			if(order == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("id").value(order.id);
+			out.name("symbol").value(order.symbol);
+			out.name("symbolId").value(order.symbolId);
+			out.name("totalQuantity").value(order.totalQuantity);
+			out.name("openQuantity").value(order.openQuantity);
+			out.name("filledQuantity").value(order.filledQuantity);
+			out.name("side").value(order.side);
+			out.name("orderType").value(order.orderType);
+			out.name("limitPrice").value(order.limitPrice);
+			out.name("stopPrice").value(order.stopPrice);
+			out.name("isAllOrNone").value(order.isAllOrNone);
+			out.name("isAnonoymous").value(order.isAnonoymous);
+			out.name("icebergQuantity").value(order.icebergQuantity);
+			out.name("minQuantity").value(order.minQuantity);
+			out.name("avgExecPrice").value(order.avgExecPrice);
+			out.name("lastExecPrice").value(order.lastExecPrice);
+			out.name("source").value(order.source);
+			out.name("timeInForce").value(order.timeInForce);
+			out.name("gtdDate").value(order.gtdDate);
+			out.name("state").value(order.state);
+			out.name("rejectionReason").value(order.rejectionReason);
+			out.name("chainId").value(order.chainId);
+			out.name("creationTime").value(order.creationTime);
+			out.name("updateTime").value(order.updateTime);
+			out.name("notes").value(order.notes);
+			out.name("primaryRoute").value(order.primaryRoute);
+			out.name("secondaryRoute").value(order.secondaryRoute);
+			out.name("orderRoute").value(order.orderRoute);
+			out.name("venueHoldingOrder").value(order.venueHoldingOrder);
+			out.name("comissionCharged").value(order.comissionCharged);
+			out.name("exchangeOrderId").value(order.exchangeOrderId);
+			out.name("isSignificantShareHolder").value(order.isSignificantShareHolder);
+			out.name("isInsider").value(order.isInsider);
+			out.name("isLimitOffsetInDollar").value(order.isLimitOffsetInDollar);
+			out.name("userId").value(order.userId);
+			out.name("placementCommission").value(order.placementCommission);
+			out.name("legs");
+			Codec.writeObjectArray(out, order.legs);
+			out.name("strategyType").value(order.strategyType);
+			out.name("triggerStopPrice").value(order.triggerStopPrice);
+			out.name("orderGroupId").value(order.orderGroupId);
+			out.name("orderClass").value(order.orderClass);
+			out.name("isCrossZero").value(order.isCrossZero);
+			out.endObject();
+		}
+	}
 }
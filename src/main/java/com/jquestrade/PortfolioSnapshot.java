@@ -0,0 +1,224 @@
+package com.jquestrade;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.jquestrade.Balances.Currency;
+import com.jquestrade.Order.OrderState;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** The balances, positions and orders of every account of a Questrade user, retrieved together, along with the positions and balances of
+ * all the accounts combined. The requests of all the accounts are sent concurrently, with no more in flight at a time than the rate limit
+ * allows for, instead of one account after the other.<br><br>
+ *
+ * Example usage:<br>
+ * {@code PortfolioSnapshot snapshot = PortfolioSnapshot.fetch(q);}<br>
+ * {@code double equity = snapshot.getCombinedBalance(Currency.CAD).getTotalEquity();}<br>
+ * {@code Position shares = snapshot.getCombinedPositions().get(8049);}
+ */
+public class PortfolioSnapshot {
+
+	private final ZonedDateTime retrievedAt;
+	private final Account[] accounts;
+	private final Map<String, Balances> balances;
+	private final Map<String, Position[]> positions;
+	private final Map<String, Order[]> orders;
+	private final Map<Integer, Position> combinedPositions;
+	private final Map<Currency, Balance> combinedBalances = new EnumMap<>(Currency.class);
+	private final Map<Currency, Balance> perCurrencyBalances = new EnumMap<>(Currency.class);
+
+	private PortfolioSnapshot(ZonedDateTime retrievedAt, Account[] accounts, Map<String, Balances> balances,
+			Map<String, Position[]> positions, Map<String, Order[]> orders) {
+		this.retrievedAt = retrievedAt;
+		this.accounts = accounts;
+		this.balances = Collections.unmodifiableMap(balances);
+		this.positions = Collections.unmodifiableMap(positions);
+		this.orders = Collections.unmodifiableMap(orders);
+
+		Map<Integer, List<Position>> bySymbol = new LinkedHashMap<>();
+		for(Position[] accountPositions : positions.values()) {
+			for(Position position : accountPositions) {
+				bySymbol.computeIfAbsent(position.getSymbolId(), id -> new ArrayList<>()).add(position);
+			}
+		}
+		Map<Integer, Position> combined = new LinkedHashMap<>();
+		for(Map.Entry<Integer, List<Position>> symbol : bySymbol.entrySet()) {
+			combined.put(symbol.getKey(), Position.combine(symbol.getValue()));
+		}
+		this.combinedPositions = Collections.unmodifiableMap(combined);
+
+		for(Currency currency : Currency.values()) {
+			combinedBalances.put(currency, Balance.sum(currency.name(), collect(account -> account.getCombinedBalances(currency))));
+			perCurrencyBalances.put(currency, Balance.sum(currency.name(), collect(account -> account.getPerCurrencyBalances(currency))));
+		}
+	}
+
+	/** Retrieves the balances, positions and open orders of every account. Open orders are those created in the last 30 days.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @return The snapshot.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public static PortfolioSnapshot fetch(Questrade questrade) throws RefreshTokenException {
+		return Questrade.join(fetchAsync(questrade));
+	}
+
+	/** Retrieves the balances, positions and orders of every account.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @param ordersSince The beginning of the time period to get the orders for. Periods longer than 30 days are split into several requests.
+	 * @param orderState Which orders to get.
+	 * @return The snapshot.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public static PortfolioSnapshot fetch(Questrade questrade, ZonedDateTime ordersSince, OrderState orderState) throws RefreshTokenException {
+		return Questrade.join(fetchAsync(questrade, ordersSince, orderState));
+	}
+
+	/** Retrieves the balances, positions and open orders of every account without blocking. See {@link #fetch(Questrade)}.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @return A future that completes with the snapshot.
+	 */
+	public static CompletableFuture<PortfolioSnapshot> fetchAsync(Questrade questrade) {
+		return fetchAsync(questrade, ZonedDateTime.now().minus(Questrade.MAX_TIME_WINDOW), OrderState.Open);
+	}
+
+	/** Retrieves the balances, positions and orders of every account without blocking. See {@link #fetch(Questrade, ZonedDateTime, OrderState)}.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @param ordersSince The beginning of the time period to get the orders for.
+	 * @param orderState Which orders to get.
+	 * @return A future that completes with the snapshot.
+	 */
+	public static CompletableFuture<PortfolioSnapshot> fetchAsync(Questrade questrade, ZonedDateTime ordersSince, OrderState orderState) {
+		QuestradeAsync async = questrade.async();
+		ZonedDateTime now = ZonedDateTime.now(ordersSince.getZone());
+		List<ZonedDateTime[]> windows = Questrade.timeWindows(ordersSince, now);
+
+		return async.getAccounts().thenCompose(found -> {
+			Account[] accounts = found != null ? found : new Account[0];
+
+			// One list for every request of every account, so that they all share the same bound on requests in flight
+			List<Supplier<CompletableFuture<Object>>> requests = new ArrayList<>();
+			for(Account account : accounts) {
+				String number = account.getNumber();
+				requests.add(() -> async.getBalances(number).thenApply(Object.class::cast));
+				requests.add(() -> async.getPositions(number).thenApply(Object.class::cast));
+				for(ZonedDateTime[] window : windows) {
+					requests.add(() -> async.getOrders(number, window[0], window[1], orderState).thenApply(Object.class::cast));
+				}
+			}
+
+			return BulkRequests.run(requests).thenApply(results -> {
+				Map<String, Balances> balances = new LinkedHashMap<>();
+				Map<String, Position[]> positions = new LinkedHashMap<>();
+				Map<String, Order[]> orders = new LinkedHashMap<>();
+
+				int next = 0;
+				for(Account account : accounts) {
+					balances.put(account.getNumber(), (Balances) results.get(next++));
+					Position[] accountPositions = (Position[]) results.get(next++);
+					positions.put(account.getNumber(), accountPositions != null ? accountPositions : new Position[0]);
+
+					// An order created at the boundary between two windows is returned by both
+					Map<Integer, Order> accountOrders = new LinkedHashMap<>();
+					for(int i = 0; i < windows.size(); i++) {
+						Order[] window = (Order[]) results.get(next++);
+						if(window != null) {
+							for(Order order : window) {
+								accountOrders.putIfAbsent(order.getId(), order);
+							}
+						}
+					}
+					orders.put(account.getNumber(), accountOrders.values().toArray(new Order[accountOrders.size()]));
+				}
+
+				return new PortfolioSnapshot(now, accounts, balances, positions, orders);
+			});
+		});
+	}
+
+	/** Returns when the snapshot was requested.
+	 * @return The time that the requests were started.
+	 */
+	public ZonedDateTime getRetrievedAt() {
+		return retrievedAt;
+	}
+
+	/** Returns the accounts in the snapshot.
+	 * @return The accounts.
+	 */
+	public Account[] getAccounts() {
+		return accounts.clone();
+	}
+
+	/** Returns the balances of an account.
+	 * @param accountNumber The account to get the balances of.
+	 * @return The balances, or {@code null} if the account isn't in the snapshot.
+	 */
+	public Balances getBalances(String accountNumber) {
+		return balances.get(accountNumber);
+	}
+
+	/** Returns the positions of an account.
+	 * @param accountNumber The account to get the positions of.
+	 * @return The positions, or {@code null} if the account isn't in the snapshot.
+	 */
+	public Position[] getPositions(String accountNumber) {
+		Position[] accountPositions = positions.get(accountNumber);
+		return accountPositions != null ? accountPositions.clone() : null;
+	}
+
+	/** Returns the orders of an account.
+	 * @param accountNumber The account to get the orders of.
+	 * @return The orders, or {@code null} if the account isn't in the snapshot.
+	 */
+	public Order[] getOrders(String accountNumber) {
+		Order[] accountOrders = orders.get(accountNumber);
+		return accountOrders != null ? accountOrders.clone() : null;
+	}
+
+	/** Returns the positions of all the accounts, with the positions of the same symbol in different accounts combined into one.
+	 * Quantities, market values, costs and P&amp;L are added up, and the average entry price is recalculated from the combined cost.
+	 * @return The combined positions, by symbol ID.
+	 */
+	public Map<Integer, Position> getCombinedPositions() {
+		return combinedPositions;
+	}
+
+	/** Returns the sum of every account's total balance in the given currency. See {@link Balances#getCombinedBalances(Currency)}.
+	 * @param currency Which currency to represent the total balance in.
+	 * @return The balance of all the accounts combined.
+	 */
+	public Balance getCombinedBalance(Currency currency) {
+		return combinedBalances.get(currency);
+	}
+
+	/** Returns the sum of every account's balance for one currency's side. See {@link Balances#getPerCurrencyBalances(Currency)}.
+	 * @param currency Which currency to get the balance for.
+	 * @return The balance in the given currency of all the accounts combined.
+	 */
+	public Balance getPerCurrencyBalance(Currency currency) {
+		return perCurrencyBalances.get(currency);
+	}
+
+	/** Returns one balance of every account that has balances, such as its combined balance in a currency. */
+	private List<Balance> collect(Function<Balances, Balance> balance) {
+		List<Balance> collected = new ArrayList<>();
+		for(Balances accountBalances : balances.values()) {
+			Balance found = accountBalances != null ? balance.apply(accountBalances) : null;
+			if(found != null) {
+				collected.add(found);
+			}
+		}
+		return collected;
+	}
+}
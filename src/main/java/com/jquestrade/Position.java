@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a position in your Questrade account. 
  * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-positions">
  * The position properties documentation</a>
@@ -107,4 +114,109 @@ public class Position {
 	public boolean isUnderReorg() {
 		return isUnderReorg;
 	}
+	
+	/** Returns the positions of one symbol in several accounts as a single position. Quantities, values, costs and P&L are added up,
+	 * and the average entry price is the combined total cost over the combined open quantity.
+	 */
+	static Position combine(Iterable<Position> positions) {
+		Position combined = new Position();
+		combined.isRealTime = true;
+		for(Position position : positions) {
+			combined.symbol = position.symbol;
+			combined.symbolId = position.symbolId;
+			combined.currentPrice = position.currentPrice;
+			combined.openQuantity += position.openQuantity;
+			combined.closedQuantity += position.closedQuantity;
+			combined.currentMarketValue += position.currentMarketValue;
+			combined.dayPnl += position.dayPnl;
+			combined.closedPnl += position.closedPnl;
+			combined.openPnl += position.openPnl;
+			combined.totalCost += position.totalCost;
+			combined.isRealTime &= position.isRealTime;
+			combined.isUnderReorg |= position.isUnderReorg;
+		}
+		combined.averageEntryPrice = combined.openQuantity != 0 ? combined.totalCost / combined.openQuantity : 0;
+		return combined;
+	}
+	
+	/** Returns a copy of this position revalued at a new price. The market value is scaled by the change in price, so that it keeps any
+	 * contract multiplier, and the change in market value is added to the open and day P&L.
+	 */
+	Position repriced(double price) {
+		Position repriced = new Position();
+		repriced.symbol = symbol;
+		repriced.symbolId = symbolId;
+		repriced.openQuantity = openQuantity;
+		repriced.closedQuantity = closedQuantity;
+		repriced.currentPrice = price;
+		repriced.currentMarketValue = currentPrice != 0 ? currentMarketValue * (price / currentPrice) : openQuantity * price;
+		double change = repriced.currentMarketValue - currentMarketValue;
+		repriced.averageEntryPrice = averageEntryPrice;
+		repriced.dayPnl = dayPnl + change;
+		repriced.closedPnl = closedPnl;
+		repriced.openPnl = openPnl + change;
+		repriced.totalCost = totalCost;
+		repriced.isRealTime = isRealTime;
+		repriced.isUnderReorg = isUnderReorg;
+		return repriced;
+	}
+	
+	/** Reads and writes {@code Position} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Position> {
+		
+		@Override
+		public Position read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Position position = new Position();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "symbol": position.symbol = Codec.nextString(in); break;
+					case "symbolId": position.symbolId = Codec.nextInt(in); break;
+					case "openQuantity": position.openQuantity = Codec.nextInt(in); break;
+					case "closedQuantity": position.closedQuantity = Codec.nextInt(in); break;
+					case "currentMarketValue": position.currentMarketValue = Codec.nextDouble(in); break;
+					case "currentPrice": position.currentPrice = Codec.nextDouble(in); break;
+					case "averageEntryPrice": position.averageEntryPrice = Codec.nextDouble(in); break;
+					case "dayPnl": position.dayPnl = Codec.nextDouble(in); break;
+					case "closedPnl": position.closedPnl = Codec.nextDouble(in); break;
+					case "openPnl": position.openPnl = Codec.nextDouble(in); break;
+					case "totalCost": position.totalCost = Codec.nextDouble(in); break;
+					case "isRealTime": position.isRealTime = Codec.nextBoolean(in); break;
+					case "isUnderReorg": position.isUnderReorg = Codec.nextBoolean(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return position;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Position position) throws IOException {
+			if(position == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("symbol").value(position.symbol);
+			out.name("symbolId").value(position.symbolId);
+			out.name("openQuantity").value(position.openQuantity);
+			out.name("closedQuantity").value(position.closedQuantity);
+			out.name("currentMarketValue").value(position.currentMarketValue);
+			out.name("currentPrice").value(position.currentPrice);
+			out.name("averageEntryPrice").value(position.averageEntryPrice);
+			out.name("dayPnl").value(position.dayPnl);
+			out.name("closedPnl").value(position.closedPnl);
+			out.name("openPnl").value(position.openPnl);
+			out.name("totalCost").value(position.totalCost);
+			out.name("isRealTime").value(position.isRealTime);
+			out.name("isUnderReorg").value(position.isUnderReorg);
+			out.endObject();
+		}
+	}
 }
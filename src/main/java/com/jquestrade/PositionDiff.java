@@ -0,0 +1,170 @@
+package com.jquestrade;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Compares each account's positions to its previous positions, and only reports the ones that were added, removed, or changed.
+ * A position counts as changed when its open quantity, average entry price, or total cost changed, which is what a fill changes;
+ * a position whose market value or P&amp;L moved with the price doesn't.<br><br>
+ *
+ * Example usage:<br>
+ * {@code PositionDiff diff = new PositionDiff(q);}<br>
+ * {@code PositionDiff.Changes changes = diff.refresh(accountNumber); // Every few seconds}<br>
+ * {@code for(Position position : changes.getChanged()) ...}
+ */
+public class PositionDiff {
+
+	private final Questrade questrade;
+
+	private final Map<String, AccountState> accounts = new ConcurrentHashMap<>();
+
+	/** The previous positions of one account. The map is replaced rather than changed, so that readers never see an update half-applied. */
+	private static final class AccountState {
+		final ReentrantLock lock = new ReentrantLock();
+		volatile Map<Integer, Position> positions = Collections.emptyMap();
+	}
+
+	/** The positions that were added, removed, or changed in one update. */
+	public static final class Changes {
+		private final Position[] added;
+		private final Position[] removed;
+		private final Position[] changed;
+		private final Map<Integer, Position> previous;
+
+		Changes(Position[] added, Position[] removed, Position[] changed, Map<Integer, Position> previous) {
+			this.added = added;
+			this.removed = removed;
+			this.changed = changed;
+			this.previous = previous;
+		}
+
+		/** Returns the positions of symbols that the account didn't have a position in before.
+		 * @return The new positions.
+		 */
+		public Position[] getAdded() {
+			return added;
+		}
+
+		/** Returns the previous positions of symbols that the account no longer has a position in.
+		 * @return The positions that are gone.
+		 */
+		public Position[] getRemoved() {
+			return removed;
+		}
+
+		/** Returns the positions whose open quantity, average entry price, or total cost changed.
+		 * @return The changed positions, as they are now.
+		 */
+		public Position[] getChanged() {
+			return changed;
+		}
+
+		/** Returns what a changed or removed position was before the update.
+		 * @param symbolId The internal identifier of the position's symbol.
+		 * @return The previous position, or {@code null} if there wasn't one.
+		 */
+		public Position getPrevious(int symbolId) {
+			return previous.get(symbolId);
+		}
+
+		/** Returns whether nothing changed.
+		 * @return {@code true} if no positions were added, removed, or changed.
+		 */
+		public boolean isEmpty() {
+			return added.length == 0 && removed.length == 0 && changed.length == 0;
+		}
+	}
+
+	/** Creates a diff with no previous positions.
+	 * @param questrade The activated {@code Questrade} object to request positions with.
+	 */
+	public PositionDiff(Questrade questrade) {
+		this.questrade = questrade;
+	}
+
+	/** Requests the positions of an account and compares them to the previous ones. On an account's first update, every position is added.
+	 * @param accountNumber The account to get the positions of.
+	 * @return The positions that were added, removed, or changed.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public Changes refresh(String accountNumber) throws RefreshTokenException {
+		return update(accountNumber, questrade.getPositions(accountNumber));
+	}
+
+	/** Compares positions that were retrieved some other way, such as by a {@link PortfolioSnapshot}, to the previous positions of the account.
+	 * @param accountNumber The account that the positions are of.
+	 * @param positions The account's current positions.
+	 * @return The positions that were added, removed, or changed.
+	 */
+	public Changes update(String accountNumber, Position[] positions) {
+		AccountState state = accounts.computeIfAbsent(accountNumber, key -> new AccountState());
+
+		state.lock.lock();
+		try {
+			Map<Integer, Position> previous = state.positions;
+			Map<Integer, Position> current = new LinkedHashMap<>();
+			List<Position> added = new ArrayList<>();
+			List<Position> changed = new ArrayList<>();
+
+			if(positions != null) {
+				for(Position position : positions) {
+					current.put(position.getSymbolId(), position);
+					Position before = previous.get(position.getSymbolId());
+					if(before == null) {
+						added.add(position);
+					} else if(changed(before, position)) {
+						changed.add(position);
+					}
+				}
+			}
+
+			List<Position> removed = new ArrayList<>();
+			for(Position before : previous.values()) {
+				if(!current.containsKey(before.getSymbolId())) {
+					removed.add(before);
+				}
+			}
+
+			state.positions = Collections.unmodifiableMap(current);
+
+			return new Changes(
+					added.toArray(new Position[added.size()]),
+					removed.toArray(new Position[removed.size()]),
+					changed.toArray(new Position[changed.size()]),
+					previous);
+		} finally {
+			state.lock.unlock();
+		}
+	}
+
+	/** Returns the latest positions of an account, by symbol ID. The map doesn't change; a later update replaces it with a new one.
+	 * @param accountNumber The account to get the positions of.
+	 * @return The positions, or an empty map if the account hasn't been updated.
+	 */
+	public Map<Integer, Position> getPositions(String accountNumber) {
+		AccountState state = accounts.get(accountNumber);
+		return state != null ? state.positions : Collections.emptyMap();
+	}
+
+	/** Forgets an account's positions, so that its next update reports every position as added.
+	 * @param accountNumber The account to forget.
+	 */
+	public void reset(String accountNumber) {
+		accounts.remove(accountNumber);
+	}
+
+	private static boolean changed(Position before, Position position) {
+		return before.getOpenQuantity() != position.getOpenQuantity()
+				|| Double.compare(before.getAverageEntryPrice(), position.getAverageEntryPrice()) != 0
+				|| Double.compare(before.getTotalCost(), position.getTotalCost()) != 0;
+	}
+}
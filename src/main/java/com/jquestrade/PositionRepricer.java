@@ -0,0 +1,197 @@
+package com.jquestrade;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Keeps the market value and P&amp;L of each account's positions up to date with every quote, without requesting the positions again.
+ * Positions are only refreshed by the Questrade API when they are requested, and account calls have the tighter rate limit. A repricer
+ * takes the latest positions of an account and revalues them at the last trade price of each quote it is given, so the positions only
+ * need to be requested again to pick up fills (such as once a minute, or when an order is executed).<br><br>
+ *
+ * A position is revalued by scaling its market value by the change in price since the position was retrieved, and adding the change in
+ * market value to its open and day P&amp;L. Its quantities and costs don't change until the positions are set again.<br><br>
+ *
+ * The repriced positions can be read from any thread. Updates (quotes and new positions) can also come from any thread.<br><br>
+ *
+ * Example usage:<br>
+ * {@code PositionRepricer repricer = new PositionRepricer(q);}<br>
+ * {@code repricer.refresh(accountNumber); // Once a minute}<br>
+ * {@code stream.addListener(repricer);}<br>
+ * {@code double dayPnl = repricer.getDayPnl(accountNumber);}
+ */
+public class PositionRepricer implements Consumer<Quote> {
+
+	private final Questrade questrade;
+
+	/** Serializes the updates, so that a quote and new positions can't overwrite each other's prices. Readers don't take it. */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Map<String, Book> accounts = new ConcurrentHashMap<>();
+	/** The last trade price of every symbol, so that positions set later start out at the latest price. Guarded by lock. */
+	private final Map<Integer, Double> prices = new HashMap<>();
+
+	/** The positions of one account, as retrieved and as repriced. */
+	private static final class Book {
+		final Map<Integer, Position> retrieved;
+		final Map<Integer, Position> repriced = new ConcurrentHashMap<>();
+
+		Book(Map<Integer, Position> retrieved) {
+			this.retrieved = retrieved;
+		}
+	}
+
+	/** Creates a repricer with no positions.
+	 * @param questrade The activated {@code Questrade} object to request positions with.
+	 */
+	public PositionRepricer(Questrade questrade) {
+		this.questrade = questrade;
+	}
+
+	/** Requests the positions of an account, and replaces the ones being repriced.
+	 * @param accountNumber The account to get the positions of.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public void refresh(String accountNumber) throws RefreshTokenException {
+		setPositions(accountNumber, questrade.getPositions(accountNumber));
+	}
+
+	/** Replaces the positions being repriced for an account with positions that were retrieved some other way, such as by a
+	 * {@link PortfolioSnapshot}. Positions of symbols that a quote was already given for are repriced right away.
+	 * @param accountNumber The account that the positions are of.
+	 * @param positions The account's current positions.
+	 */
+	public void setPositions(String accountNumber, Position[] positions) {
+		Map<Integer, Position> retrieved = new LinkedHashMap<>();
+		if(positions != null) {
+			for(Position position : positions) {
+				retrieved.put(position.getSymbolId(), position);
+			}
+		}
+
+		lock.lock();
+		try {
+			Book book = new Book(retrieved);
+			for(Position position : retrieved.values()) {
+				Double price = prices.get(position.getSymbolId());
+				book.repriced.put(position.getSymbolId(), price != null ? position.repriced(price) : position);
+			}
+			accounts.put(accountNumber, book);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Revalues the positions of the quote's symbol in every account at the quote's last trade price. Quotes without a last trade price are ignored.
+	 * @param quote The new quote.
+	 */
+	@Override
+	public void accept(Quote quote) {
+		double price = quote.getLastTradePrice();
+		if(!(price > 0)) {
+			return;
+		}
+
+		int symbolId = (int) quote.getSymbolId();
+		lock.lock();
+		try {
+			prices.put(symbolId, price);
+			for(Book book : accounts.values()) {
+				Position position = book.retrieved.get(symbolId);
+				if(position != null) {
+					book.repriced.put(symbolId, position.repriced(price));
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Revalues the positions of the quotes' symbols. See {@link #accept(Quote)}.
+	 * @param quotes The new quotes.
+	 */
+	public void acceptAll(Quote[] quotes) {
+		for(Quote quote : quotes) {
+			accept(quote);
+		}
+	}
+
+	/** Returns the repriced positions of an account.
+	 * @param accountNumber The account to get the positions of.
+	 * @return The positions, or an empty array if the account's positions weren't set.
+	 */
+	public Position[] getPositions(String accountNumber) {
+		Book book = accounts.get(accountNumber);
+		if(book == null) {
+			return new Position[0];
+		}
+		return book.repriced.values().toArray(new Position[0]);
+	}
+
+	/** Returns the repriced position of an account in one symbol.
+	 * @param accountNumber The account to get the position of.
+	 * @param symbolId The internal identifier of the position's symbol.
+	 * @return The position, or {@code null} if the account doesn't have a position in the symbol.
+	 */
+	public Position getPosition(String accountNumber, int symbolId) {
+		Book book = accounts.get(accountNumber);
+		return book != null ? book.repriced.get(symbolId) : null;
+	}
+
+	/** Returns the total market value of an account's repriced positions. Positions in different currencies are added without conversion.
+	 * @param accountNumber The account to get the market value of.
+	 * @return The total market value, or {@code 0} if the account's positions weren't set.
+	 */
+	public double getMarketValue(String accountNumber) {
+		double total = 0;
+		for(Position position : repriced(accountNumber)) {
+			total += position.getCurrentMarketValue();
+		}
+		return total;
+	}
+
+	/** Returns the total open P&amp;L of an account's repriced positions. Positions in different currencies are added without conversion.
+	 * @param accountNumber The account to get the open P&amp;L of.
+	 * @return The total open P&amp;L, or {@code 0} if the account's positions weren't set.
+	 */
+	public double getOpenPnl(String accountNumber) {
+		double total = 0;
+		for(Position position : repriced(accountNumber)) {
+			total += position.getOpenPnl();
+		}
+		return total;
+	}
+
+	/** Returns the total day P&amp;L of an account's repriced positions. Positions in different currencies are added without conversion.
+	 * @param accountNumber The account to get the day P&amp;L of.
+	 * @return The total day P&amp;L, or {@code 0} if the account's positions weren't set.
+	 */
+	public double getDayPnl(String accountNumber) {
+		double total = 0;
+		for(Position position : repriced(accountNumber)) {
+			total += position.getDayPnl();
+		}
+		return total;
+	}
+
+	/** Stops repricing an account's positions.
+	 * @param accountNumber The account to forget.
+	 */
+	public void remove(String accountNumber) {
+		accounts.remove(accountNumber);
+	}
+
+	private Collection<Position> repriced(String accountNumber) {
+		Book book = accounts.get(accountNumber);
+		return book != null ? book.repriced.values() : Collections.emptyList();
+	}
+}
@@ -1,18 +1,34 @@
 package com.jquestrade;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 import com.jquestrade.Candle.Interval;
 import com.jquestrade.Order.OrderState;
+import com.jquestrade.RateLimiter.Category;
 import com.jquestrade.Request.RequestMethod;
 import com.jquestrade.exceptions.ArgumentException;
 import com.jquestrade.exceptions.RefreshTokenException;
@@ -28,15 +44,18 @@ import com.jquestrade.exceptions.TimeRangeException;
 public class Questrade {
 
 	/** A string representation of the this object's last HTTP request. */
-	private String lastRequest;
+	private volatile String lastRequest;
 	
-	/** Date formatter object for converting converting <code>ZonedDateTime</code> objects to strings in the 
-	 * ISO 8601 time format.
+	/** The most candles that are requested at once. Matches the most that the Questrade API returns in a single response. */
+	static final int MAX_CANDLES_PER_REQUEST = 2000;
+	
+	/** The longest time period that activities, executions or orders are requested for at once. The Questrade API rejects periods
+	 * of more than about a month.
 	 */
-	private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+	static final Duration MAX_TIME_WINDOW = Duration.ofDays(30);
 	
 	/** Authorization object that is created with information retrieved when consuming refresh token. */
-	private Authorization authorization;
+	private volatile Authorization authorization;
 	
 	/** Represents a {@code void} function that relays the {@code Authorization} object to a given function.
 	 * Set in {@code retrieveAccessToken()}.
@@ -55,6 +74,27 @@ public class Questrade {
 	 */
 	private Authorization startingAuthorization;
 	
+	/** The transport that this object's HTTP requests are sent through. */
+	private Transport transport = HttpClientTransport.getShared();
+	
+	/** How long before the access token expires to renew it. {@code null} if proactive refreshing is off. */
+	private volatile Duration refreshMargin;
+	
+	/** The next proactive renewal, or {@code null} if none is scheduled. */
+	private volatile ScheduledFuture<?> scheduledRefresh;
+	
+	/** The authorization refresh that is currently in flight, shared by everything waiting on it. {@code null} if there is none. */
+	private final AtomicReference<CompletableFuture<Authorization>> pendingRefresh = new AtomicReference<>();
+	
+	/** The executor that asynchronous responses are handled on, or {@code null} for {@link QuestradeExecutors#decoders()}. */
+	private volatile Executor executor;
+	
+	/** Paces this object's requests so that they stay within Questrade's rate limits. */
+	private final RateLimiter rateLimiter = new RateLimiter();
+	
+	/** The asynchronous view of this object. Created on the first call to {@link #async()}. */
+	private QuestradeAsync async;
+	
 	/** Creates an instance of the {@code QuestradeAPI} wrapper, whose methods can be used to access the Questrade API. 
 	 * To use the object to access the Questrade API,
 	 * you must call the {@link #activate()} method on the object, otherwise API methods will not work.
@@ -78,7 +118,20 @@ public class Questrade {
 	 * Instructions for getting a refresh token for your Questrade account.</a>
 	 */
 	public Questrade(String refreshToken, String accessToken, String apiServer) {
-		this.startingAuthorization = new Authorization(refreshToken, accessToken, apiServer);
+		this.startingAuthorization = new Authorization(refreshToken, accessToken, apiServer, null);
+	}
+	
+	/** Creates an instance of the {@code Questrade} wrapper from cached data, the same as {@link #Questrade(String, String, String)}, but also
+	 * with the time that the cached access token expires, such as the {@link Authorization#getAccessTokenExpiryTime()} that was saved with it.
+	 * Knowing it lets {@link #setProactiveRefresh(Duration) proactive refreshing} renew the access token before it expires; without it,
+	 * a cached access token is only renewed once a request finds out that it has expired.
+	 * @param refreshToken The refresh token that is used to gain access to the Questrade API.
+	 * @param accessToken The previously-generated access token.
+	 * @param apiServer The API server address associated with the accessToken.
+	 * @param accessTokenExpiryTime The time at which the access token expires.
+	 */
+	public Questrade(String refreshToken, String accessToken, String apiServer, Instant accessTokenExpiryTime) {
+		this.startingAuthorization = new Authorization(refreshToken, accessToken, apiServer, accessTokenExpiryTime);
 	}
 	
 	/** A string representation of the this object's last HTTP request.
@@ -102,6 +155,7 @@ public class Questrade {
 		} else if(startingAuthorization != null) {
 			authorization = startingAuthorization;
 			startingAuthorization = null;
+			scheduleRefresh(authorization);
 		}
 		
 		return this;
@@ -120,7 +174,7 @@ public class Questrade {
 		request.setRequestMethod(RequestMethod.GET);
 		
 		try {
-			sendRequest(request);
+			sendRequest(request, Codec.AUTHORIZATION);
 		} catch (RefreshTokenException e) {}
 	}
 	
@@ -136,7 +190,7 @@ public class Questrade {
 		request.setRequestMethod(RequestMethod.GET);
 		
 		try {
-			sendRequest(request);
+			sendRequest(request, Codec.AUTHORIZATION);
 		} catch (RefreshTokenException e) {}
 	}
 	
@@ -155,15 +209,108 @@ public class Questrade {
 		Request request = new Request(URL);
 		request.setRequestMethod(RequestMethod.GET);
 		
-		String responseJSON = sendRequest(request);
-
-		authorization = new Gson().fromJson(responseJSON, Authorization.class);
+		setAuthorization(sendRequest(request, Codec.AUTHORIZATION));
+	}	
+	
+	/** The asynchronous equivalent of {@link #retrieveAccessToken(String)}, used when an access token expires during an asynchronous request.
+	 * @param refreshToken The refresh token to be used to refresh the authorization.
+	 * @return A future that completes with the new {@code Authorization}.
+	 */
+	private CompletableFuture<Authorization> retrieveAccessTokenAsync(String refreshToken) {
+		String URL = "https://login.questrade.com/oauth2/token?grant_type=refresh_token&refresh_token=" + refreshToken;
+		
+		Request request = new Request(URL);
+		request.setRequestMethod(RequestMethod.GET);
+		
+		return sendRequestAsync(request, Codec.AUTHORIZATION).thenApply(authorization -> {
+			setAuthorization(authorization);
+			return authorization;
+		});
+	}
+	
+	/** Swaps in a newly retrieved authorization, relays it to the <i>authorization relay function</i> and, if proactive refreshing is on,
+	 * schedules its renewal.
+	 * @param authorization The new authorization.
+	 */
+	private void setAuthorization(Authorization authorization) {
+		if(authorization == null) {
+			return; // The request failed, keep the old one
+		}
+		
+		this.authorization = authorization;
 
 		if(authRelayFunction != null) {
 			authRelayFunction.accept(authorization);
 		}
 		
-	}	
+		scheduleRefresh(authorization);
+	}
+	
+	/** Replaces the authorization whose access token is {@code expiredAccessToken} with a new one. Refresh tokens can only be used once,
+	 * so no matter how many requests (or the proactive refresh) find out about the same expired access token, only one refresh request
+	 * is sent and all of them get its result. If the authorization has already been replaced, the current one is returned right away.
+	 * @param expiredAccessToken The access token that was found to be expired (or about to be).
+	 * @return A future that completes with the new {@code Authorization}.
+	 */
+	private CompletableFuture<Authorization> refreshAuthorization(String expiredAccessToken) {
+		while(true) {
+			Authorization current = authorization;
+			if(!current.getAccessToken().equals(expiredAccessToken)) {
+				return CompletableFuture.completedFuture(current);
+			}
+			
+			CompletableFuture<Authorization> pending = pendingRefresh.get();
+			if(pending != null) {
+				return pending;
+			}
+			
+			CompletableFuture<Authorization> refresh = new CompletableFuture<>();
+			if(pendingRefresh.compareAndSet(null, refresh)) {
+				// Another refresh may have finished between reading the authorization and winning the race
+				if(authorization != current) {
+					pendingRefresh.set(null);
+					refresh.complete(authorization);
+					return refresh;
+				}
+				
+				retrieveAccessTokenAsync(current.getRefreshToken()).whenComplete((authorization, e) -> {
+					pendingRefresh.set(null);
+					if(e != null) {
+						refresh.completeExceptionally(e);
+					} else {
+						refresh.complete(authorization);
+					}
+				});
+				return refresh;
+			}
+		}
+	}
+	
+	/** Schedules the given authorization to be renewed {@link #refreshMargin} before its access token expires,
+	 * replacing any previously scheduled renewal. Does nothing if proactive refreshing is off, or if the authorization came from cached
+	 * data without an expiry time.
+	 * @param authorization The authorization to renew.
+	 */
+	private void scheduleRefresh(Authorization authorization) {
+		ScheduledFuture<?> previous = scheduledRefresh;
+		if(previous != null) {
+			previous.cancel(false);
+		}
+		
+		Duration margin = refreshMargin;
+		Instant expiryTime = authorization != null ? authorization.getAccessTokenExpiryTime() : null;
+		if(margin == null || expiryTime == null) {
+			// Also when the expiry of cached data isn't known: refreshing right away would spend the refresh token for nothing
+			scheduledRefresh = null;
+			return;
+		}
+		
+		long delay = expiryTime.minus(margin).toEpochMilli() - System.currentTimeMillis();
+		
+		// If this fails, the next request will find the expired access token and refresh it the usual way
+		scheduledRefresh = SharedScheduler.get().schedule(
+				() -> refreshAuthorization(authorization.getAccessToken()), Math.max(delay, 0), TimeUnit.MILLISECONDS);
+	}
 	
 	/** Forcefully refreshes the authorization (which includes the access token) with the refresh token saved within the object. 
 	 * Calling this function will save the resulting {@link Authorization} object to be relayed to <i>authorization relay function</i> 
@@ -177,6 +324,25 @@ public class Questrade {
 		retrieveAccessToken(authorization.getRefreshToken());
 	}
 
+	/** Turns on proactive refreshing: the access token will be renewed in the background the given amount of time before it expires,
+	 * instead of when a request finds out that it has expired. This saves the request that would have been rejected, then the extra
+	 * round-trip to retrieve the new access token before resending it. The new {@link Authorization} is still relayed to the
+	 * <i>authorization relay function</i> (if set using the {@link #setAuthRelay(Consumer)} method).<br><br>
+	 * Proactive refreshing keeps renewing the authorization for as long as it is on, even if no requests are made,
+	 * so turn it off by passing {@code null} once this object is no longer needed.<br><br>
+	 * An authorization created from cached data with {@link #Questrade(String, String, String)} has no known expiry time, so it isn't
+	 * renewed ahead of time; the authorizations retrieved after it are.
+	 * @param margin How long before the access token expires to renew it, such as {@code Duration.ofMinutes(1)}.
+	 * Use {@code null} to turn proactive refreshing off, which is the default.
+	 * @return A reference to the calling object, for optional method chaining.<br>
+	 * Example: {@code Questrade q = new Questrade(token).setProactiveRefresh(Duration.ofMinutes(1)).activate();}
+	 */
+	public Questrade setProactiveRefresh(Duration margin) {
+		this.refreshMargin = margin;
+		scheduleRefresh(authorization);
+		return this;
+	}
+
 	/**Returns an {@link Authorization} object which contains the access token, api server,
 	 * access token expiry time, new refresh token, and the access token type (which is always Bearer).<br><br>
 	 * @return The current {@code Authorization} object. Will be {@code null} if {@link #activate()} has not been called yet.
@@ -203,6 +369,46 @@ public class Questrade {
 		return this;
 	}
 	
+	/** Sets the transport that this object's HTTP requests are sent through. By default, all {@code Questrade} objects share
+	 * {@link HttpClientTransport#getShared()}, which keeps its connections to the API server alive between requests.
+	 * @param transport The transport to send the requests through.
+	 * @return A reference to the calling object, for optional method chaining.<br>
+	 * Example: {@code Questrade q = new Questrade(token).setTransport(transport);}
+	 */
+	public Questrade setTransport(Transport transport) {
+		this.transport = transport;
+		return this;
+	}
+	
+	/** Sets the executor that the responses of asynchronous requests are handled on: decoded as their bodies arrive, merged (for calls made
+	 * of several requests, such as long candle ranges) and passed to whatever was chained onto the returned futures. Since decoding waits for
+	 * the body, it can't be done on the transport's own threads; by default, responses are handled on a small shared pool with one thread
+	 * per processor, so many requests can be in flight without a thread each, and responses that arrive together wait their turn to be
+	 * decoded. Whatever is chained onto the returned futures runs on the same pool, so it shouldn't block; blocking work should be chained
+	 * with an {@code ...Async} method and an executor of its own. {@link QuestradeExecutors#virtualThreads()} instead gives each response
+	 * its own virtual thread, where available.
+	 * @param executor The executor to handle responses on, or {@code null} for the default.
+	 * @return A reference to the calling object, for optional method chaining.<br>
+	 * Example: {@code Questrade q = new Questrade(token).setExecutor(QuestradeExecutors.virtualThreads());}
+	 */
+	public Questrade setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+	
+	/** Returns the asynchronous view of this object, whose methods return a {@link CompletableFuture} instead of blocking until the
+	 * response arrives. The view shares this object's authorization, transport and authorization relay function, so
+	 * {@link #activate()} must still be called before using it.<br><br>
+	 * Example: {@code q.async().getQuote(8049).thenAccept(quotes -> print(quotes[0]));}
+	 * @return The asynchronous view of this object.
+	 */
+	public QuestradeAsync async() {
+		if(async == null) {
+			async = new QuestradeAsync(this);
+		}
+		return async;
+	}
+	
 	/** Get the balances for the given account. 
 	 * @param accountNumber The account number to get the balances for. To get an account number, call
 	 * {@link #getAccounts()} to get a {@code Account[]}, then call {@link Account#getNumber()} on some index.
@@ -214,23 +420,7 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/balances</b> documentation</a>
 	 */
 	public Balances getBalances(String accountNumber) throws RefreshTokenException {
-		String URL = "v1/accounts/" + accountNumber + "/balances";
-		
-		Request request = new Request(URL);
-		request.setAccessToken(authorization.getAccessToken());
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		
-		String balancesJSON = sendRequest(request);
-		
-		Balances balance = new Gson().fromJson(balancesJSON, Balances.class);
-		return balance;
-	}
-	
-	/** Class used for GSON parsing, only in {@link Questrade#getAccounts()} */
-	private class Accounts { 
-		private Account[] accounts; 
-		private int userId;
+		return sendRequest(balancesRequest(accountNumber), Codec.BALANCES);
 	}
 	
 	/** Get all of the accounts for the associated Questrade account.
@@ -241,23 +431,7 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts</b> documentation</a>
 	 */
 	public Account[] getAccounts() throws RefreshTokenException {
-		String URL = "v1/accounts/";
-		
-		Request request = new Request(URL);
-		request.setAccessToken(authorization.getAccessToken());
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		
-		String accountsJSON = sendRequest(request);
-		
-		Accounts accounts = new Gson().fromJson(accountsJSON, Accounts.class);
-
-		//Inject the userId into each account for easier access
-		for(int i = 0; i < accounts.accounts.length; i++) {
-			accounts.accounts[i].setUserId(accounts.userId);
-		}
-
-		return accounts.accounts;
+		return sendRequest(accountsRequest(), Codec.ACCOUNTS);
 	}
 	
 	/** Returns the current server time in ISO format and Eastern time zone (EST).
@@ -268,26 +442,16 @@ public class Questrade {
 	 * The Questrade API <b>GET time</b> documentation</a>
 	 */
 	public ZonedDateTime getTime() throws RefreshTokenException {
-		String URL = "v1/time";
-
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		
-		String timeJSON = sendRequest(request);
-		
-		String timeISO = new Gson().fromJson(timeJSON, JsonObject.class).get("time").getAsString();
-		return ZonedDateTime.parse(timeISO);
+		return sendRequest(timeRequest(), Codec.TIME);
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getActivities(String, ZonedDateTime, ZonedDateTime)} */
-	private class Activities { private Activity[] activities; }
-	
-	/** Get all of the activities of an account in a given time period. A maximum of 30 days of data can be requested at a time.
+	/** Get all of the activities of an account in a given time period. The Questrade API only accepts 30 days of data per request,
+	 * so a longer time period is split into 30-day windows that are requested concurrently (within the rate limits), and the
+	 * activities of all windows are returned in order of transaction date. If a request fails to reach the Questrade API, {@code null} is
+	 * returned, the same as for any other request, whether or not the time period was split.
 	 * @param accountNumber The account for which to get the activities for.
 	 * @param startTime The beginning of the time period to get the activities for.
-	 * @param endTime The end of the time period to get the activities for. This cannot be more than 31 days after the startTime argument.
+	 * @param endTime The end of the time period to get the activities for.
 	 * @return An {@code Activity[]} array representing all the activities in the given time period.
 	 * @throws RefreshTokenException If the refresh token is invalid.
 	 * @throws ArgumentException If the request arguments are invalid.
@@ -296,29 +460,13 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/activities</b> documentation</a>
 	 */
 	public Activity[] getActivities(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) throws RefreshTokenException {
-		if(startTime.isAfter(endTime)) {
-			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		List<Request> requests = activitiesRequests(accountNumber, startTime, endTime);
+		if(requests.size() == 1) {
+			return sendRequest(requests.get(0), Codec.ACTIVITIES);
 		}
-		
-		String URL = "v1/accounts/" + accountNumber + "/activities";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("startTime", startTime.format(ISO_FORMATTER));
-		request.addParameter("endTime", endTime.format(ISO_FORMATTER));
-		
-		String activitiesJSON = sendRequest(request);
-	
-		Activities activities = new Gson().fromJson(activitiesJSON, Activities.class);
-		
-		return activities.activities;
+		return joinChunks(sendActivitiesRequestsAsync(requests));
 	}	
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getExecutions(String, ZonedDateTime, ZonedDateTime)} */
-	private class Executions { private Execution[] executions; }
-	
 	/** Get all of the executions of an account in a given time period. A maximum of 30 days of data can be requested at a time.
 	 * @param accountNumber The account for which to get the executions for.
 	 * @param startTime The beginning of the time period to get the executions for.
@@ -331,24 +479,7 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/executions</b> documentation</a>
 	 */
 	public Execution[] getExecutions(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) throws RefreshTokenException {
-		if(startTime.isAfter(endTime)) {
-			throw new TimeRangeException("The startTime must be earlier than the endTime.");
-		}
-		
-		String URL = "v1/accounts/" + accountNumber + "/executions";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setAccessToken(authorization.getAccessToken());
-		request.setApiServer(authorization.getApiServer());
-		request.addParameter("startTime", startTime.format(ISO_FORMATTER));
-		request.addParameter("endTime", endTime.format(ISO_FORMATTER));
-		
-		String executionsJSON = sendRequest(request);
-
-		Executions executions = new Gson().fromJson(executionsJSON, Executions.class);
-		
-		return executions.executions;
+		return sendRequest(executionsRequest(accountNumber, startTime, endTime), Codec.EXECUTIONS);
 	}	
 
 	/** Get all of the orders of an account in a given time period, using one or more order IDs.
@@ -362,15 +493,7 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/orders[/:orderId]</b> documentation</a>
 	 */
 	public Order[] getOrders(String accountNumber, int[] orderIds) throws RefreshTokenException {
-		String URL = "v1/accounts/" + accountNumber + "/orders";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setAccessToken(authorization.getAccessToken());
-		request.setApiServer(authorization.getApiServer());
-		request.addParameter("ids", orderIds);
-		
-		return finishGetOrders(request);
+		return sendRequest(ordersRequest(accountNumber, orderIds), Codec.ORDERS);
 	}
 	
 	/** Get all of the orders of an account in a given time period, using one or more order IDs.
@@ -391,15 +514,7 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/orders[/:orderId]</b> documentation</a>
 	 */
 	public Order[] getOrders(String accountNumber, int orderId, int ...orderIds) throws RefreshTokenException {
-		String URL = "v1/accounts/" + accountNumber + "/orders";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("ids", orderIds);
-		
-		return finishGetOrders(request);
+		return sendRequest(ordersRequest(accountNumber, orderId, orderIds), Codec.ORDERS);
 	}
 	
 	/** Get all of the orders of an account in a given time period. A maximum of 30 days of data can be requested at a time.
@@ -432,45 +547,9 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/orders[/:orderId]</b> documentation</a>
 	 */
 	public Order[] getOrders(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime, OrderState orderState) throws RefreshTokenException {
-		if(startTime.isAfter(endTime)) {
-			throw new TimeRangeException("The startTime must be earlier than the endTime.");
-		}
-		
-		String URL = "v1/accounts/" + accountNumber + "/orders";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("startTime", startTime.format(ISO_FORMATTER));
-		request.addParameter("endTime", endTime.format(ISO_FORMATTER));
-		request.setApiServer(authorization.getApiServer());
-		if(orderState != null) {
-			request.addParameter("stateFilter", orderState.name());
-		}
-		
-		return finishGetOrders(request);
-	}
-	
-	/** Private class used for GSON parsing, only in {@link Questrade#finishGetOrders(Request)} */
-	private class Orders { private Order[] orders; }
-	
-	/** A private method that all {@code getOrders} methods eventually funnel in to. Method exists only to not have to repeat code.
-	 * @param request The API request created in some {@code getOrders} method. Contains the URL, parameters, request method, etc.
-	 * @return An {@code Order[]} array containing all of the corresponding {@link Order} objects.
-	 * @throws RefreshTokenException If the refresh token is invalid.
-	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
-	 * @see <a href="https://www.questrade.com/api/documentation/rest-operations/account-calls/accounts-id-orders">
-	 * The Questrade API <b>GET accounts/:id/orders[/:orderId]</b> documentation</a>
-	 */
-	private Order[] finishGetOrders(Request request) throws RefreshTokenException {
-		String ordersJSON = sendRequest(request);
-		Orders orders = new Gson().fromJson(ordersJSON, Orders.class);
-		return orders.orders;
+		return sendRequest(ordersRequest(accountNumber, startTime, endTime, orderState), Codec.ORDERS);
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getPositions(String)} */
-	private class Positions { private Position[] positions; }
-	
 	/** Get all of the current positions for a given account.
 	 * @param accountNumber The account to get the positions for.
 	 * @return A {@code Position[]} array containing all of the corresponding {@link Position} objects.
@@ -481,25 +560,14 @@ public class Questrade {
 	 * The Questrade API <b>GET accounts/:id/orders[/:orderId]</b> documentation</a>
 	 */
 	public Position[] getPositions(String accountNumber) throws RefreshTokenException {
-		String URL = "v1/accounts/" + accountNumber + "/positions";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());		
-		
-		String positionsJSON = sendRequest(request);
-		
-		Positions positions = new Gson().fromJson(positionsJSON, Positions.class);
-		
-		return positions.positions;
+		return sendRequest(positionsRequest(accountNumber), Codec.POSITIONS);
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getCandles(int, ZonedDateTime, ZonedDateTime, Interval)} */
-	private class Candles { private Candle[] candles; }
-	
 	/** Returns historical market data in the form of OHLC candlesticks for a specified symbol.
-	 * This call is limited to returning 2,000 candlesticks in a single response.
+	 * The Questrade API returns at most 2,000 candlesticks in a single response, so a longer time period is split into chunks of
+	 * up to {@value #MAX_CANDLES_PER_REQUEST} candles that are requested concurrently (within the rate limits) and merged in order.
+	 * If a request fails to reach the Questrade API, {@code null} is returned, the same as for any other request, whether or not the time
+	 * period was split.
 	 * @param symbolId The internal symbol identifier.
 	 * @param startTime The beginning of the time period to get the candles for.
 	 * @param endTime The end of the time period to get the candles for. 
@@ -512,29 +580,34 @@ public class Questrade {
 	 * The Questrade API <b>GET markets/candles/:id</b> documentation</a>
 	 */
 	public Candle[] getCandles(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) throws RefreshTokenException {
-		if(startTime.isAfter(endTime)) {
-			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		List<Request> requests = candlesRequests(symbolId, startTime, endTime, interval);
+		if(requests.size() == 1) {
+			return sendRequest(requests.get(0), Codec.CANDLES);
 		}
-		
-		String URL = "v1/markets/candles/" + symbolId;
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("startTime", startTime.format(ISO_FORMATTER));
-		request.addParameter("endTime", endTime.format(ISO_FORMATTER));
-		request.addParameter("interval", interval.name());
-		
-		String candlesJSON = sendRequest(request);
-		
-		Candles candles = new Gson().fromJson(candlesJSON, Candles.class);
-		
-		return candles.candles;
+		return joinChunks(sendCandlesRequestsAsync(requests));
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getMarkets()} */
-	private class Markets { private Market[] markets; }
+	/** Returns the same candles as {@link #getCandles(int, ZonedDateTime, ZonedDateTime, Interval)}, but as a {@link CandleSeries}:
+	 * one primitive array per field instead of one object per candle, which is much smaller and faster to scan for long ranges.
+	 * Long time periods are split the same way, and a failure to reach the Questrade API also returns {@code null}.
+	 * @param symbolId The internal symbol identifier.
+	 * @param startTime The beginning of the time period to get the candles for.
+	 * @param endTime The end of the time period to get the candles for. 
+	 * @param interval The time between the candles.
+	 * @return A {@code CandleSeries} containing all of the candles within in the given time period.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 * @see <a href="https://www.questrade.com/api/documentation/rest-operations/market-calls/markets-candles-id">
+	 * The Questrade API <b>GET markets/candles/:id</b> documentation</a>
+	 */
+	public CandleSeries getCandleSeries(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) throws RefreshTokenException {
+		List<Request> requests = candlesRequests(symbolId, startTime, endTime, interval);
+		if(requests.size() == 1) {
+			return sendRequest(requests.get(0), Codec.CANDLE_SERIES);
+		}
+		return joinChunks(sendCandleSeriesRequestsAsync(requests));
+	}
 	
 	/** Retrieves information about supported markets.
 	 * @return An {@code Market[]} array containing all of the available {@link Market}s.
@@ -544,18 +617,7 @@ public class Questrade {
 	 * The Questrade API <b>GET markets</b> documentation</a>
 	 */
 	public Market[] getMarkets() throws RefreshTokenException {
-		String URL = "v1/markets";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		
-		String marketsJSON = sendRequest(request);
-		
-		Markets markets = new Gson().fromJson(marketsJSON, Markets.class);
-		
-		return markets.markets;
+		return sendRequest(marketsRequest(), Codec.MARKETS);
 	}
 	
 	/** Returns a search for a symbol containing basic information. This method is the same as calling
@@ -573,9 +635,6 @@ public class Questrade {
 		return searchSymbol(prefix, 0);
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#searchSymbol(String, int)} */
-	private class Symbols { private Symbol[] symbols; }
-	
 	/** Returns a search for a symbol containing basic information.<br><br>
 	 *  * Example: If the {@code prefix} is {@code "BMO"}, the result set will contain basic information for 
 	 * {@code "BMO"}, {@code "BMO.PRJ.TO"}, etc (anything with {@code "BMO"} in it).
@@ -590,26 +649,7 @@ public class Questrade {
 	 * The Questrade API <b>GET symbols/search</b> documentation</a>
 	 */
 	public Symbol[] searchSymbol(String prefix, int offset) throws RefreshTokenException {
-		if(offset < 0) {
-			throw new ArgumentException("offset argument cannot be less than 0");
-		}
-		
-		String URL = "v1/symbols/search";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("prefix", prefix);
-		if(offset > 0) {
-			request.addParameter("offset", offset + "");
-		}
-		
-		String symbolsJSON = sendRequest(request);
-		
-		Symbols symbols = new Gson().fromJson(symbolsJSON, Symbols.class);
-		
-		return symbols.symbols;
+		return sendRequest(searchSymbolRequest(prefix, offset), Codec.SYMBOLS);
 	}
 	
 	/** Returns detailed information for one or more specific symbols using their internal unique identifiers.
@@ -623,15 +663,7 @@ public class Questrade {
 	 * The Questrade API <b>GET symbols/:id</b> documentation</a>
 	 */
 	public SymbolInfo[] getSymbol(int id, int ...ids) throws RefreshTokenException {
-		String URL = "v1/symbols";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("ids", id, ids);
-		
-		return finishGetSymbol(request);
+		return sendRequest(symbolRequest(id, ids), Codec.SYMBOL_INFOS);
 	}
 	
 	/** Returns detailed information for one or more specific symbols using their internal unique identifiers.
@@ -644,15 +676,7 @@ public class Questrade {
 	 * The Questrade API <b>GET symbols/:id</b> documentation</a>
 	 */
 	public SymbolInfo[] getSymbol(int[] ids) throws RefreshTokenException {
-		String URL = "v1/symbols";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("ids", ids);
-		
-		return finishGetSymbol(request);
+		return sendRequest(symbolRequest(ids), Codec.SYMBOL_INFOS);
 	}
 	
 	/** Returns detailed information for one or more specific symbols using their symbol names.
@@ -666,15 +690,7 @@ public class Questrade {
 	 * The Questrade API <b>GET symbols/:id</b> documentation</a>
 	 */
 	public SymbolInfo[] getSymbol(String name, String ...names) throws RefreshTokenException {
-		String URL = "v1/symbols";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("names", name, names);
-		
-		return finishGetSymbol(request);
+		return sendRequest(symbolRequest(name, names), Codec.SYMBOL_INFOS);
 	}
 	
 	/** Returns detailed information for one or more specific symbols using their symbol names.
@@ -687,30 +703,9 @@ public class Questrade {
 	 * The Questrade API <b>GET symbols/:id</b> documentation</a>
 	 */
 	public SymbolInfo[] getSymbol(String[] names) throws RefreshTokenException {
-		String URL = "v1/symbols";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("names", names);
-		
-		return finishGetSymbol(request);
-	}
-	
-	/** Private class used for GSON parsing, only in {@link Questrade#finishGetOrders(Request)} */
-	private class SymbolInfos { private SymbolInfo[] symbols; }
-	
-	/** Helper method to cut down on code. All getSymbol() methods funnel into here. */
-	private SymbolInfo[] finishGetSymbol(Request request) throws RefreshTokenException {
-		String symbolInfosJSON = sendRequest(request);
-		SymbolInfos symbolsInfos = new Gson().fromJson(symbolInfosJSON, SymbolInfos.class);
-		return symbolsInfos.symbols;
+		return sendRequest(symbolRequest(names), Codec.SYMBOL_INFOS);
 	}
 	
-	/** Private class used for GSON parsing, only in {@link Questrade#getQuote(int, int...)} */
-	private class Quotes { private Quote[] quotes; }
-	
 	/**Retrieves a single Level 1 market data quote for one or more symbols. Equivalent to calling
 	 * {@link #getQuote(int[])}<br><br>
 	 * <b>IMPORTANT NOTE:</b> The Questrade user needs to be subscribed to a real-time data package, 
@@ -726,18 +721,7 @@ public class Questrade {
 	 * The Questrade API <b>GET markets/quotes/:id</b> documentation</a>
 	 */
 	public Quote[] getQuote(int id, int ...ids) throws RefreshTokenException {
-		String URL = "v1/markets/quotes";
-		
-		Request request = new Request(URL);
-		request.setRequestMethod(RequestMethod.GET);
-		request.setApiServer(authorization.getApiServer());
-		request.setAccessToken(authorization.getAccessToken());
-		request.addParameter("ids", id, ids);
-		
-		String quotesJSON = sendRequest(request);
-
-		Quotes quotes = new Gson().fromJson(quotesJSON, Quotes.class);
-		return quotes.quotes;
+		return sendRequest(quoteRequest(id, ids), Codec.QUOTES);
 	}
 	
 	/**Retrieves a single Level 1 market data quote for one or more symbols. Equivalent to calling
@@ -754,41 +738,349 @@ public class Questrade {
 	 * The Questrade API <b>GET markets/quotes/:id</b> documentation</a>
 	 */
 	public Quote[] getQuote(int[] ids) throws RefreshTokenException {
-		String URL = "v1/markets/quotes";
+		return sendRequest(quoteRequest(ids), Codec.QUOTES);
+	}
+	
+	/** Creates a GET request for the given API path, authorized with the current access token. All of the request builders below start here. */
+	Request newRequest(String path) {
+		Authorization authorization = this.authorization;
 		
-		Request request = new Request(URL);
+		Request request = new Request(path);
 		request.setRequestMethod(RequestMethod.GET);
 		request.setApiServer(authorization.getApiServer());
 		request.setAccessToken(authorization.getAccessToken());
+		return request;
+	}
+	
+	/* The request builders below are shared by the blocking methods of this class and by QuestradeAsync,
+	 * so that the argument checks and URLs only live in one place. */
+	
+	Request balancesRequest(String accountNumber) {
+		return newRequest("v1/accounts/" + accountNumber + "/balances");
+	}
+	
+	Request accountsRequest() {
+		return newRequest("v1/accounts/");
+	}
+	
+	Request timeRequest() {
+		return newRequest("v1/time");
+	}
+	
+	Request activitiesRequest(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		return timeRangeRequest("v1/accounts/" + accountNumber + "/activities", startTime, endTime);
+	}
+	
+	/** The {@link CandleSeries} equivalent of {@link #sendCandlesRequestsAsync(List)}. */
+	CompletableFuture<CandleSeries> sendCandleSeriesRequestsAsync(List<Request> requests) {
+		List<Supplier<CompletableFuture<CandleSeries>>> chunks = new ArrayList<>(requests.size());
+		for(Request request : requests) {
+			chunks.add(() -> sendRequestAsync(request, Codec.CANDLE_SERIES));
+		}
+		return BulkRequests.run(chunks).thenApply(CandleSeries::concat);
+	}
+	
+	/** Splits a time period into activity requests of at most {@link #MAX_TIME_WINDOW} each. */
+	List<Request> activitiesRequests(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		List<Request> requests = new ArrayList<>();
+		for(ZonedDateTime[] window : timeWindows(startTime, endTime)) {
+			requests.add(activitiesRequest(accountNumber, window[0], window[1]));
+		}
+		return requests;
+	}
+	
+	/** Splits a time period into consecutive windows of at most {@link #MAX_TIME_WINDOW} each. Each window starts where the previous one
+	 * ends, so that no record falls between two windows; a record at a boundary can be returned by both windows, so the callers that
+	 * merge the windows' records drop the copies (by ID, or for activities, which have none, by comparing them).
+	 * @return The windows in order, each as a {@code {start, end}} pair.
+	 * @throws TimeRangeException If the startTime is after the endTime.
+	 */
+	static List<ZonedDateTime[]> timeWindows(ZonedDateTime startTime, ZonedDateTime endTime) {
+		if(startTime.isAfter(endTime)) {
+			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		}
+		
+		List<ZonedDateTime[]> windows = new ArrayList<>();
+		ZonedDateTime windowStart = startTime;
+		while(true) {
+			ZonedDateTime windowEnd = windowStart.plus(MAX_TIME_WINDOW);
+			if(!windowEnd.isBefore(endTime)) {
+				windows.add(new ZonedDateTime[] {windowStart, endTime});
+				return windows;
+			}
+			windows.add(new ZonedDateTime[] {windowStart, windowEnd});
+			windowStart = windowEnd;
+		}
+	}
+	
+	/** Sends activity requests made by {@link #activitiesRequests(String, ZonedDateTime, ZonedDateTime)} and merges their activities
+	 * in order of transaction date. Activities with the same transaction date keep the order that they were returned in.
+	 * An activity at the boundary between two windows can be returned by both, so an activity that is no later than the previous window's
+	 * last activity and the same as one of that window's activities is dropped.
+	 */
+	CompletableFuture<Activity[]> sendActivitiesRequestsAsync(List<Request> requests) {
+		List<Supplier<CompletableFuture<Activity[]>>> windows = new ArrayList<>(requests.size());
+		for(Request request : requests) {
+			windows.add(() -> sendRequestAsync(request, Codec.ACTIVITIES));
+		}
+		
+		return BulkRequests.run(windows).thenApply(results -> {
+			List<Activity> merged = new ArrayList<>();
+			Activity[] previous = null;
+			for(Activity[] activities : results) {
+				if(activities == null) {
+					previous = null;
+					continue;
+				}
+				merged.addAll(withoutBoundaryCopies(previous, activities));
+				previous = activities;
+			}
+			merged.sort(Comparator.comparingLong(Activity::getTransactionDateMillis));
+			return merged.toArray(new Activity[merged.size()]);
+		});
+	}
+	
+	/** Returns a window's activities without the ones that the previous window already returned at their shared boundary. */
+	private static List<Activity> withoutBoundaryCopies(Activity[] previous, Activity[] activities) {
+		if(previous == null || previous.length == 0) {
+			return Arrays.asList(activities);
+		}
+		
+		long boundary = Long.MIN_VALUE;
+		for(Activity activity : previous) {
+			boundary = Math.max(boundary, activity.getTransactionDateMillis());
+		}
+		
+		// Only the previous window's activities at or after this window's earliest one can be copies
+		long earliest = Long.MAX_VALUE;
+		for(Activity activity : activities) {
+			earliest = Math.min(earliest, activity.getTransactionDateMillis());
+		}
+		List<Activity> candidates = new ArrayList<>();
+		for(Activity activity : previous) {
+			if(activity.getTransactionDateMillis() >= earliest) {
+				candidates.add(activity);
+			}
+		}
+		
+		List<Activity> kept = new ArrayList<>(activities.length);
+		for(Activity activity : activities) {
+			if(activity.getTransactionDateMillis() <= boundary && removeSame(candidates, activity)) {
+				continue;
+			}
+			kept.add(activity);
+		}
+		return kept;
+	}
+	
+	/** Removes one activity that is the same as the given one from the list, so that each copy only cancels out one activity. */
+	private static boolean removeSame(List<Activity> activities, Activity activity) {
+		for(int i = 0; i < activities.size(); i++) {
+			if(activities.get(i).sameAs(activity)) {
+				activities.remove(i);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	Request executionsRequest(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		return timeRangeRequest("v1/accounts/" + accountNumber + "/executions", startTime, endTime);
+	}
+	
+	Request ordersRequest(String accountNumber, int[] orderIds) {
+		Request request = newRequest("v1/accounts/" + accountNumber + "/orders");
+		request.addParameter("ids", orderIds);
+		return request;
+	}
+	
+	Request ordersRequest(String accountNumber, int orderId, int ...orderIds) {
+		Request request = newRequest("v1/accounts/" + accountNumber + "/orders");
+		request.addParameter("ids", orderId, orderIds);
+		return request;
+	}
+	
+	Request ordersRequest(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime, OrderState orderState) {
+		Request request = timeRangeRequest("v1/accounts/" + accountNumber + "/orders", startTime, endTime);
+		if(orderState != null) {
+			request.addParameter("stateFilter", orderState.name());
+		}
+		return request;
+	}
+	
+	Request positionsRequest(String accountNumber) {
+		return newRequest("v1/accounts/" + accountNumber + "/positions");
+	}
+	
+	Request candlesRequest(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) {
+		Request request = timeRangeRequest("v1/markets/candles/" + symbolId, startTime, endTime);
+		request.addParameter("interval", interval.name());
+		return request;
+	}
+	
+	/** Splits a time period into the candle requests needed to cover it, each spanning at most {@value #MAX_CANDLES_PER_REQUEST} candles. */
+	List<Request> candlesRequests(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) {
+		if(startTime.isAfter(endTime)) {
+			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		}
+		
+		// Both ends of a request are inclusive, so a chunk of n - 1 lengths can hold n candles
+		Duration chunk = interval.getMinimumLength().multipliedBy(MAX_CANDLES_PER_REQUEST - 1);
+		List<Request> requests = new ArrayList<>();
+		ZonedDateTime chunkStart = startTime;
+		do {
+			ZonedDateTime chunkEnd = chunkStart.plus(chunk);
+			if(!chunkEnd.isBefore(endTime)) {
+				chunkEnd = endTime;
+			}
+			requests.add(candlesRequest(symbolId, chunkStart, chunkEnd, interval));
+			chunkStart = chunkEnd;
+		} while(chunkStart.isBefore(endTime));
+		return requests;
+	}
+	
+	/** Sends candle requests made by {@link #candlesRequests(int, ZonedDateTime, ZonedDateTime, Interval)} and merges their candles in order.
+	 * A candle at the boundary between two chunks can be returned by both, so candles that don't start after the previous one are dropped.
+	 */
+	CompletableFuture<Candle[]> sendCandlesRequestsAsync(List<Request> requests) {
+		List<Supplier<CompletableFuture<Candle[]>>> chunks = new ArrayList<>(requests.size());
+		for(Request request : requests) {
+			chunks.add(() -> sendRequestAsync(request, Codec.CANDLES));
+		}
+		
+		return BulkRequests.run(chunks).thenApply(results -> {
+			List<Candle> merged = new ArrayList<>();
+			long lastStart = Long.MIN_VALUE;
+			for(Candle[] candles : results) {
+				if(candles == null) {
+					continue;
+				}
+				for(Candle candle : candles) {
+					long start = candle.getStartMillis();
+					if(start > lastStart) {
+						merged.add(candle);
+						lastStart = start;
+					}
+				}
+			}
+			return merged.toArray(new Candle[merged.size()]);
+		});
+	}
+	
+	Request marketsRequest() {
+		return newRequest("v1/markets");
+	}
+	
+	Request searchSymbolRequest(String prefix, int offset) {
+		if(offset < 0) {
+			throw new ArgumentException("offset argument cannot be less than 0");
+		}
+		
+		Request request = newRequest("v1/symbols/search");
+		request.addParameter("prefix", prefix);
+		if(offset > 0) {
+			request.addParameter("offset", offset + "");
+		}
+		return request;
+	}
+	
+	Request symbolRequest(int id, int ...ids) {
+		Request request = newRequest("v1/symbols");
+		request.addParameter("ids", id, ids);
+		return request;
+	}
+	
+	Request symbolRequest(int[] ids) {
+		Request request = newRequest("v1/symbols");
+		request.addParameter("ids", ids);
+		return request;
+	}
+	
+	Request symbolRequest(String name, String ...names) {
+		Request request = newRequest("v1/symbols");
+		request.addParameter("names", name, names);
+		return request;
+	}
+	
+	Request symbolRequest(String[] names) {
+		Request request = newRequest("v1/symbols");
+		request.addParameter("names", names);
+		return request;
+	}
+	
+	Request quoteRequest(int id, int ...ids) {
+		Request request = newRequest("v1/markets/quotes");
+		request.addParameter("ids", id, ids);
+		return request;
+	}
+	
+	Request quoteRequest(int[] ids) {
+		Request request = newRequest("v1/markets/quotes");
 		request.addParameter("ids", ids);
+		return request;
+	}
+	
+	/** Requests a port for streaming the quotes of the given symbols over a WebSocket, instead of the quotes themselves. */
+	Request quoteStreamRequest(int[] ids) {
+		Request request = quoteRequest(ids);
+		request.addParameter("stream", "true");
+		request.addParameter("mode", "WebSocket");
+		return request;
+	}
+	
+	/** Creates a request for an endpoint that takes a startTime and endTime, checking that the time range is valid. */
+	private Request timeRangeRequest(String path, ZonedDateTime startTime, ZonedDateTime endTime) {
+		if(startTime.isAfter(endTime)) {
+			throw new TimeRangeException("The startTime must be earlier than the endTime.");
+		}
 		
-		String quotesJSON = sendRequest(request);
-		Quotes quotes = new Gson().fromJson(quotesJSON, Quotes.class);
-		return quotes.quotes;
+		Request request = newRequest(path);
+		request.addParameter("startTime", Timestamps.formatRequest(startTime));
+		request.addParameter("endTime", Timestamps.formatRequest(endTime));
+		return request;
 	}
 	
-	/** Represents an error response returned by the Questrade API servers. */
-	private class Error {
-		private int code;
-		private String message;
+	/** Represents an error response returned by the Questrade API servers. Decoded by {@link Codec#ERROR}. */
+	static class Error {
+		int code;
+		String message;
 	}
 	
-	/** Sends the given request. If the access token expires during execution, it will automatically use the cached refresh token
-	 * to get a new access token and retry the request.
+	/** Sends the given request and decodes the JSON response into the given type as it is read from the connection,
+	 * without first buffering the body into a string. If the access token expires during execution, it will automatically use
+	 * the cached refresh token to get a new access token and retry the request.
+	 * Requests are held back as needed to stay within Questrade's rate limits, and a request that is rejected for exceeding them
+	 * is retried once the limit resets.
 	 * @param request The API request that contain contains the URL, parameters, request method, etc.
-	 * @return Usually a string in JSON format.
+	 * @param type The adapter that decodes the response, one of the constants in {@link Codec}.
+	 * @return The decoded response.
 	 * @throws RefreshTokenException If the refresh token is invalid.
 	 * @throws ArgumentException If the request arguments are invalid.
 	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
 	 */
-    private String sendRequest(Request request) throws RefreshTokenException {
+    private <T> T sendRequest(Request request, TypeAdapter<T> type) throws RefreshTokenException {
     	
         try {
+        	Category category = Category.of(request);
+        	if(category != null) {
+        		TimeUnit.NANOSECONDS.sleep(rateLimiter.reserve(category)); // wait for our turn under the rate limit
+        	}
+        	
         	lastRequest = request.toString();
 
-            HttpURLConnection connection = request.getConnection();
+            HttpResponse<InputStream> response = transport.send(request.toHttpRequest());
             
-            int statusCode = connection.getResponseCode();
+            int statusCode = response.statusCode();
+            
+            if(category != null) {
+            	if(statusCode == 429) {
+            		// Rate limit exceeded anyway (such as by another program using the same account), so wait until it resets
+            		readBody(response.body());
+            		TimeUnit.NANOSECONDS.sleep(rateLimiter.rejected(category, response.headers()));
+            		return sendRequest(request, type);
+            	}
+            	rateLimiter.update(category, response.headers());
+            }
             
             // This exception is thrown when there's no internet (I'm guessing)
             //java.net.UnknownHostException
@@ -796,43 +1088,189 @@ public class Questrade {
             // Response codes in the 200s are "successful"
             if (statusCode > 299 || statusCode < 200) {
             	
-            	BufferedReader in = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            	String responseJSON = in.readLine();
-            	connection.disconnect();
-
-            	//Extract error from response JSON
-            	Error error;
-            	try {
-            		error = new Gson().fromJson(responseJSON, Error.class);
-            	} catch (JsonSyntaxException e) {
-            		throw new RefreshTokenException("Error code " + statusCode + " was returned. Assuming refresh token is invalid.");
-            	}
-     
-            	// Error code 1017 means access token is invalid or expired
-            	if(error.code == 1017) {
-
-            		retrieveAccessToken(authorization.getRefreshToken()); // get new access token
-            		request.setAccessToken(authorization.getAccessToken()); // set new access token
-            		request.setApiServer(authorization.getApiServer()); // set new api server
-            		return sendRequest(request); // resend fixed-up request
-            	} else if (error.code == 1002 || error.code == 1003 || error.code == 1004) {
-            		throw new ArgumentException(error.message);
-            	}
-              	
-        		throw new StatusCodeException("A bad status code was returned: " + statusCode 
-        				+ ". Reason: " + error.message, statusCode);
+            	checkErrorResponse(statusCode, readBody(response.body()));
+            	
+            	// The access token expired
+            	Authorization authorization = join(refreshAuthorization(request.getAccessToken())); // get new access token
+            	request.setAccessToken(authorization.getAccessToken()); // set new access token
+            	request.setApiServer(authorization.getApiServer()); // set new api server
+            	return sendRequest(request, type); // resend fixed-up request
             }
             
-            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            String responseJSON = in.readLine();
-            connection.disconnect();
-            
-            return responseJSON;
+            return decode(response.body(), type);
             
         } catch(IOException e) {
         	e.printStackTrace();
+        } catch(InterruptedException e) {
+        	Thread.currentThread().interrupt();
+        	e.printStackTrace();
         }
 
         return null;
     }
+    
+    /** The asynchronous equivalent of {@link #sendRequest(Request, TypeAdapter)}. No thread is blocked while waiting for the response; once its
+     * headers arrive, the body is decoded as it is read, the same as the blocking path, on this object's executor or on the bounded
+     * {@link QuestradeExecutors#decoders()} pool. Used by {@link QuestradeAsync}.
+     * @param request The API request that contain contains the URL, parameters, request method, etc.
+     * @param type The adapter that decodes the response, one of the constants in {@link Codec}.
+     * @return A future that completes with the decoded response, or completes exceptionally with a {@link RefreshTokenException},
+     * {@link ArgumentException}, {@link StatusCodeException} or {@link IOException}.
+     */
+    <T> CompletableFuture<T> sendRequestAsync(Request request, TypeAdapter<T> type) {
+    	Category category = Category.of(request);
+    	long wait = category != null ? rateLimiter.reserve(category) : 0;
+    	
+    	// Wait for our turn under the rate limit without holding a thread
+    	CompletableFuture<HttpResponse<InputStream>> sent = wait > 0
+    			? delay(wait).thenCompose(ignored -> sendNowAsync(request))
+    			: sendNowAsync(request);
+    	
+    	Function<HttpResponse<InputStream>, CompletableFuture<T>> handle = response -> {
+    		int statusCode = response.statusCode();
+    		
+    		if(category != null) {
+    			if(statusCode == 429) {
+    				// Rate limit exceeded anyway (such as by another program using the same account), so wait until it resets
+    				try {
+    					readBody(response.body());
+    				} catch (IOException e) {
+    					throw new CompletionException(e);
+    				}
+    				return delay(rateLimiter.rejected(category, response.headers()))
+    						.thenCompose(ignored -> sendRequestAsync(request, type));
+    			}
+    			rateLimiter.update(category, response.headers());
+    		}
+    		
+    		// Response codes in the 200s are "successful"
+    		if (statusCode > 299 || statusCode < 200) {
+    			try {
+    				checkErrorResponse(statusCode, readBody(response.body()));
+    			} catch (RefreshTokenException | IOException e) {
+    				throw new CompletionException(e);
+    			}
+    			
+    			// The access token expired
+    			return refreshAuthorization(request.getAccessToken()).thenCompose(authorization -> {
+    				request.setAccessToken(authorization.getAccessToken()); // set new access token
+    				request.setApiServer(authorization.getApiServer()); // set new api server
+    				return sendRequestAsync(request, type); // resend fixed-up request
+    			});
+    		}
+    		
+    		try {
+    			return CompletableFuture.completedFuture(decode(response.body(), type));
+    		} catch (IOException e) {
+    			throw new CompletionException(e);
+    		}
+    	};
+    	
+    	// The body is decoded as it arrives, which blocks, so it mustn't be read on the transport's own threads
+    	Executor executor = this.executor;
+    	return sent.thenComposeAsync(handle, executor != null ? executor : QuestradeExecutors.decoders());
+    }
+    
+    private CompletableFuture<HttpResponse<InputStream>> sendNowAsync(Request request) {
+    	lastRequest = request.toString();
+    	return transport.sendAsync(request.toHttpRequest());
+    }
+    
+    /** Returns a future that completes after the given delay, in nanoseconds, on this object's executor if it has one. */
+    private CompletableFuture<Void> delay(long nanos) {
+    	Executor executor = this.executor;
+    	return CompletableFuture.runAsync(() -> {}, executor != null
+    			? CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS, executor)
+    			: CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+    
+    /** Waits for the given future and returns its result, rethrowing the exception that it completed with.
+     * @param future The future to wait for.
+     * @return The result of the future.
+     * @throws RefreshTokenException If the refresh token is invalid.
+     */
+    static <T> T join(CompletableFuture<T> future) throws RefreshTokenException {
+    	try {
+    		return future.join();
+    	} catch(CompletionException e) {
+    		Throwable cause = e.getCause();
+    		if(cause instanceof RefreshTokenException) {
+    			throw (RefreshTokenException) cause;
+    		} else if(cause instanceof RuntimeException) {
+    			throw (RuntimeException) cause;
+    		} else if(cause instanceof IOException) {
+    			throw new UncheckedIOException((IOException) cause);
+    		}
+    		throw e;
+    	}
+    }
+    
+    /** Waits for the requests that a long time period was split into. A request that fails to reach the Questrade API is handled the same
+     * as by {@link #sendRequest(Request, TypeAdapter)}: the error is printed and {@code null} is returned, so that splitting a time period
+     * doesn't change what the blocking methods do on failure. Other exceptions are rethrown like {@link #join(CompletableFuture)} does.
+     * @param future The future of the merged results.
+     * @return The merged results, or {@code null} if a request couldn't be sent or its response couldn't be read.
+     * @throws RefreshTokenException If the refresh token is invalid.
+     */
+    private static <T> T joinChunks(CompletableFuture<T> future) throws RefreshTokenException {
+    	try {
+    		return join(future);
+    	} catch(UncheckedIOException e) {
+    		e.getCause().printStackTrace();
+    		return null;
+    	}
+    }
+    
+    /** Throws the exception that corresponds to an unsuccessful response, unless the response says that the access token
+     * is invalid or expired, in which case this method returns normally and the caller should get a new access token and retry.
+     * @param statusCode The response's status code.
+     * @param responseJSON The response's body.
+     * @throws RefreshTokenException If the refresh token is invalid.
+     * @throws ArgumentException If the request arguments are invalid.
+     * @throws StatusCodeException For any other error.
+     */
+    private void checkErrorResponse(int statusCode, String responseJSON) throws RefreshTokenException {
+    	//Extract error from response JSON
+    	Error error;
+    	try {
+    		error = Codec.ERROR.fromJson(responseJSON);
+    	} catch (IOException | IllegalStateException e) {
+    		error = null;
+    	}
+    	
+    	if(error == null) {
+    		throw new RefreshTokenException("Error code " + statusCode + " was returned. Assuming refresh token is invalid.");
+    	}
+    	
+    	// Error code 1017 means access token is invalid or expired
+    	if(error.code == 1017) {
+    		return;
+    	} else if (error.code == 1002 || error.code == 1003 || error.code == 1004) {
+    		throw new ArgumentException(error.message);
+    	}
+    	
+    	throw new StatusCodeException("A bad status code was returned: " + statusCode 
+    			+ ". Reason: " + error.message, statusCode);
+    }
+    
+    /** Reads the whole response body and closes it, which lets the transport reuse the connection for the next request.
+     * Only used for error responses, which are small. */
+    private static String readBody(InputStream body) throws IOException {
+    	try (InputStream in = body) {
+    		return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    	}
+    }
+    
+    /** Decodes a JSON response body into the given type, reading it incrementally instead of holding the whole body as a string.
+     * Whatever follows the JSON value (usually just a line break) is drained before the body is closed,
+     * so that the transport can reuse the connection. */
+    private static <T> T decode(InputStream body, TypeAdapter<T> type) throws IOException {
+    	try (InputStream in = body) {
+    		JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    		reader.setLenient(true);
+    		T result = type.read(reader);
+    		in.transferTo(OutputStream.nullOutputStream());
+    		return result;
+    	}
+    }
 }
@@ -0,0 +1,259 @@
+package com.jquestrade;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.jquestrade.Candle.Interval;
+import com.jquestrade.Order.OrderState;
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** The asynchronous view of a {@link Questrade} object, retrieved using {@link Questrade#async()}. Each method is the non-blocking
+ * equivalent of the {@code Questrade} method with the same name: it sends the request and immediately returns a {@link CompletableFuture},
+ * so a single thread can have many requests in flight at once.<br><br>
+ *
+ * Errors that would be thrown by the blocking method (such as {@link RefreshTokenException} or {@link StatusCodeException}) instead complete
+ * the future exceptionally. An {@link ArgumentException} caused by invalid arguments, such as a startTime after the endTime, is still thrown
+ * immediately. If the access token expires, a new one is retrieved and the request is retried, the same as with the blocking methods.
+ * @see Questrade
+ */
+public class QuestradeAsync {
+
+	/** The object whose authorization and transport are used to send the requests. */
+	private final Questrade questrade;
+
+	QuestradeAsync(Questrade questrade) {
+		this.questrade = questrade;
+	}
+
+	/** Returns the {@code Questrade} object that this is the asynchronous view of.
+	 * @return The blocking {@code Questrade} object.
+	 */
+	public Questrade blocking() {
+		return questrade;
+	}
+
+	/** Get the balances for the given account. See {@link Questrade#getBalances(String)}.
+	 * @param accountNumber The account number to get the balances for.
+	 * @return A future that completes with the {@code Balances}.
+	 */
+	public CompletableFuture<Balances> getBalances(String accountNumber) {
+		return questrade.sendRequestAsync(questrade.balancesRequest(accountNumber), Codec.BALANCES);
+	}
+
+	/** Get all of the accounts for the associated Questrade account. See {@link Questrade#getAccounts()}.
+	 * @return A future that completes with an {@code Account[]} array, containing all of the accounts.
+	 */
+	public CompletableFuture<Account[]> getAccounts() {
+		return questrade.sendRequestAsync(questrade.accountsRequest(), Codec.ACCOUNTS);
+	}
+
+	/** Returns the current server time. See {@link Questrade#getTime()}.
+	 * @return A future that completes with the current server time.
+	 */
+	public CompletableFuture<ZonedDateTime> getTime() {
+		return questrade.sendRequestAsync(questrade.timeRequest(), Codec.TIME);
+	}
+
+	/** Get all of the activities of an account in a given time period. See {@link Questrade#getActivities(String, ZonedDateTime, ZonedDateTime)}.
+	 * @param accountNumber The account for which to get the activities for.
+	 * @param startTime The beginning of the time period to get the activities for.
+	 * @param endTime The end of the time period to get the activities for.
+	 * @return A future that completes with an {@code Activity[]} array representing all the activities in the given time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<Activity[]> getActivities(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		List<Request> requests = questrade.activitiesRequests(accountNumber, startTime, endTime);
+		if(requests.size() == 1) {
+			return questrade.sendRequestAsync(requests.get(0), Codec.ACTIVITIES);
+		}
+		return questrade.sendActivitiesRequestsAsync(requests);
+	}
+
+	/** Get all of the executions of an account in a given time period. See {@link Questrade#getExecutions(String, ZonedDateTime, ZonedDateTime)}.
+	 * @param accountNumber The account for which to get the executions for.
+	 * @param startTime The beginning of the time period to get the executions for.
+	 * @param endTime The end of the time period to get the executions for.
+	 * @return A future that completes with an {@code Execution[]} array representing all the executions in the given time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<Execution[]> getExecutions(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		return questrade.sendRequestAsync(questrade.executionsRequest(accountNumber, startTime, endTime), Codec.EXECUTIONS);
+	}
+
+	/** Get the orders of an account using one or more order IDs. See {@link Questrade#getOrders(String, int[])}.
+	 * @param accountNumber The account to get the order information for.
+	 * @param orderIds An array containing all of the orders IDs to get information for.
+	 * @return A future that completes with an {@code Order[]} array containing the corresponding {@link Order} objects.
+	 */
+	public CompletableFuture<Order[]> getOrders(String accountNumber, int[] orderIds) {
+		return finishGetOrders(questrade.ordersRequest(accountNumber, orderIds));
+	}
+
+	/** Get the orders of an account using one or more order IDs. See {@link Questrade#getOrders(String, int, int...)}.
+	 * @param accountNumber The account to get the order information for.
+	 * @param orderId The order ID to get the order info for.
+	 * @param orderIds Optional parameter for if you want to add more order IDs to the request.
+	 * @return A future that completes with an {@code Order[]} array containing the corresponding {@link Order} objects.
+	 */
+	public CompletableFuture<Order[]> getOrders(String accountNumber, int orderId, int ...orderIds) {
+		return finishGetOrders(questrade.ordersRequest(accountNumber, orderId, orderIds));
+	}
+
+	/** Get all of the orders of an account in a given time period. See {@link Questrade#getOrders(String, ZonedDateTime, ZonedDateTime)}.
+	 * @param accountNumber The account for which to get the orders for.
+	 * @param startTime The beginning of the time period to get the orders for.
+	 * @param endTime The end of the time period to get the orders for.
+	 * @return A future that completes with an {@code Order[]} array containing all of the {@link Order}s created in the time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<Order[]> getOrders(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime) {
+		return getOrders(accountNumber, startTime, endTime, null);
+	}
+
+	/** Get all of the orders of an account in a given time period.
+	 * See {@link Questrade#getOrders(String, ZonedDateTime, ZonedDateTime, OrderState)}.
+	 * @param accountNumber The account for which to get the orders for.
+	 * @param startTime The beginning of the time period to get the orders for.
+	 * @param endTime The end of the time period to get the orders for.
+	 * @param orderState The state of the order. See {@link Order.OrderState} for all possible values.
+	 * @return A future that completes with an {@code Order[]} array containing all of the {@link Order}s created in the time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<Order[]> getOrders(String accountNumber, ZonedDateTime startTime, ZonedDateTime endTime, OrderState orderState) {
+		return finishGetOrders(questrade.ordersRequest(accountNumber, startTime, endTime, orderState));
+	}
+
+	/** Helper method that all {@code getOrders} methods funnel into. */
+	private CompletableFuture<Order[]> finishGetOrders(Request request) {
+		return questrade.sendRequestAsync(request, Codec.ORDERS);
+	}
+
+	/** Get all of the current positions for a given account. See {@link Questrade#getPositions(String)}.
+	 * @param accountNumber The account to get the positions for.
+	 * @return A future that completes with a {@code Position[]} array containing all of the corresponding {@link Position} objects.
+	 */
+	public CompletableFuture<Position[]> getPositions(String accountNumber) {
+		return questrade.sendRequestAsync(questrade.positionsRequest(accountNumber), Codec.POSITIONS);
+	}
+
+	/** Returns historical market data in the form of OHLC candlesticks for a specified symbol.
+	 * See {@link Questrade#getCandles(int, ZonedDateTime, ZonedDateTime, Interval)}.
+	 * @param symbolId The internal symbol identifier.
+	 * @param startTime The beginning of the time period to get the candles for.
+	 * @param endTime The end of the time period to get the candles for.
+	 * @param interval The time between the candles.
+	 * @return A future that completes with a {@code Candle[]} array containing all of the {@link Candle}s within in the given time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<Candle[]> getCandles(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) {
+		List<Request> requests = questrade.candlesRequests(symbolId, startTime, endTime, interval);
+		if(requests.size() == 1) {
+			return questrade.sendRequestAsync(requests.get(0), Codec.CANDLES);
+		}
+		return questrade.sendCandlesRequestsAsync(requests);
+	}
+
+	/** Returns historical market data as a {@link CandleSeries}. See {@link Questrade#getCandleSeries(int, ZonedDateTime, ZonedDateTime, Interval)}.
+	 * @param symbolId The internal symbol identifier.
+	 * @param startTime The beginning of the time period to get the candles for.
+	 * @param endTime The end of the time period to get the candles for.
+	 * @param interval The time between the candles.
+	 * @return A future that completes with a {@code CandleSeries} containing all of the candles within in the given time period.
+	 * @throws ArgumentException If the request arguments are invalid.
+	 */
+	public CompletableFuture<CandleSeries> getCandleSeries(int symbolId, ZonedDateTime startTime, ZonedDateTime endTime, Interval interval) {
+		List<Request> requests = questrade.candlesRequests(symbolId, startTime, endTime, interval);
+		if(requests.size() == 1) {
+			return questrade.sendRequestAsync(requests.get(0), Codec.CANDLE_SERIES);
+		}
+		return questrade.sendCandleSeriesRequestsAsync(requests);
+	}
+
+	/** Retrieves information about supported markets. See {@link Questrade#getMarkets()}.
+	 * @return A future that completes with a {@code Market[]} array containing all of the available {@link Market}s.
+	 */
+	public CompletableFuture<Market[]> getMarkets() {
+		return questrade.sendRequestAsync(questrade.marketsRequest(), Codec.MARKETS);
+	}
+
+	/** Returns a search for a symbol containing basic information. See {@link Questrade#searchSymbol(String)}.
+	 * @param prefix The prefix of a symbol or any word in the description. Example: "AAPL" is a valid parameter.
+	 * @return A future that completes with a {@code Symbol[]} array containing basic information about the symbol(s).
+	 */
+	public CompletableFuture<Symbol[]> searchSymbol(String prefix) {
+		return searchSymbol(prefix, 0);
+	}
+
+	/** Returns a search for a symbol containing basic information. See {@link Questrade#searchSymbol(String, int)}.
+	 * @param prefix The prefix of a symbol or any word in the description. Example: "AAPL" is a valid parameter.
+	 * @param offset Offset in number of records from the beginning of a result set.
+	 * @return A future that completes with a {@code Symbol[]} array containing basic information about the symbol(s).
+	 * @throws ArgumentException If the offset is less than 0.
+	 */
+	public CompletableFuture<Symbol[]> searchSymbol(String prefix, int offset) {
+		return questrade.sendRequestAsync(questrade.searchSymbolRequest(prefix, offset), Codec.SYMBOLS);
+	}
+
+	/** Returns detailed information for one or more specific symbols using their internal unique identifiers.
+	 * See {@link Questrade#getSymbol(int, int...)}.
+	 * @param id The internal unique identifier for a symbol.
+	 * @param ids Optional parameter for if you want to get information for multiple symbols in the same request.
+	 * @return A future that completes with a {@code SymbolInfo[]} array containing information about the symbol(s).
+	 */
+	public CompletableFuture<SymbolInfo[]> getSymbol(int id, int ...ids) {
+		return finishGetSymbol(questrade.symbolRequest(id, ids));
+	}
+
+	/** Returns detailed information for one or more specific symbols using their internal unique identifiers.
+	 * See {@link Questrade#getSymbol(int[])}.
+	 * @param ids The internal unique identifiers for one or more symbols.
+	 * @return A future that completes with a {@code SymbolInfo[]} array containing information about the symbol(s).
+	 */
+	public CompletableFuture<SymbolInfo[]> getSymbol(int[] ids) {
+		return finishGetSymbol(questrade.symbolRequest(ids));
+	}
+
+	/** Returns detailed information for one or more specific symbols using their symbol names.
+	 * See {@link Questrade#getSymbol(String, String...)}.
+	 * @param name The name of the symbol. (Eg: "MSFT")
+	 * @param names Optional parameter for if you want to get information for multiple symbols in the same request.
+	 * @return A future that completes with a {@code SymbolInfo[]} array containing information about the symbol(s).
+	 */
+	public CompletableFuture<SymbolInfo[]> getSymbol(String name, String ...names) {
+		return finishGetSymbol(questrade.symbolRequest(name, names));
+	}
+
+	/** Returns detailed information for one or more specific symbols using their symbol names.
+	 * See {@link Questrade#getSymbol(String[])}.
+	 * @param names The names of the symbols. (Eg: "MSFT", "AAPL")
+	 * @return A future that completes with a {@code SymbolInfo[]} array containing information about the symbol(s).
+	 */
+	public CompletableFuture<SymbolInfo[]> getSymbol(String[] names) {
+		return finishGetSymbol(questrade.symbolRequest(names));
+	}
+
+	/** Helper method that all {@code getSymbol} methods funnel into. */
+	private CompletableFuture<SymbolInfo[]> finishGetSymbol(Request request) {
+		return questrade.sendRequestAsync(request, Codec.SYMBOL_INFOS);
+	}
+
+	/** Retrieves a single Level 1 market data quote for one or more symbols. See {@link Questrade#getQuote(int, int...)}.
+	 * @param id The internal identifer of a symbol.
+	 * @param ids Optional parameter for adding more symbols to the same request.
+	 * @return A future that completes with a {@code Quote[]} array, each index containing the quote for each requested symbol.
+	 */
+	public CompletableFuture<Quote[]> getQuote(int id, int ...ids) {
+		return questrade.sendRequestAsync(questrade.quoteRequest(id, ids), Codec.QUOTES);
+	}
+
+	/** Retrieves a single Level 1 market data quote for one or more symbols. See {@link Questrade#getQuote(int[])}.
+	 * @param ids The internal identifers of the symbols.
+	 * @return A future that completes with a {@code Quote[]} array, each index containing the quote for each requested symbol.
+	 */
+	public CompletableFuture<Quote[]> getQuote(int[] ids) {
+		return questrade.sendRequestAsync(questrade.quoteRequest(ids), Codec.QUOTES);
+	}
+}
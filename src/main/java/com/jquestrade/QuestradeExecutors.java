@@ -0,0 +1,104 @@
+package com.jquestrade;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Provides executors to run the library's asynchronous work on, using {@link Questrade#setExecutor(Executor)},
+ * {@link QuoteStream#setExecutor(Executor)} or {@link HttpClientTransport#create(Executor)}.<br><br>
+ *
+ * On Java 21 and later, {@link #virtualThreads()} runs each task on its own virtual thread, so tens of thousands of requests (or blocking calls
+ * to {@link Questrade} methods) can be in progress without a thread pool to size. The library is built for Java 11, so virtual threads are
+ * looked up at runtime; on older versions, the same method returns a pool of platform threads instead.<br><br>
+ *
+ * Example usage:<br>
+ * {@code Questrade q = new Questrade(token).setExecutor(QuestradeExecutors.virtualThreads()).activate();}
+ */
+public final class QuestradeExecutors {
+	private QuestradeExecutors() {}
+
+	/** Created on first use, see {@link #virtualThreads()}. */
+	private static final class VirtualThreads {
+		static final ExecutorService EXECUTOR = create();
+		static final boolean SUPPORTED = EXECUTOR != PlatformThreads.EXECUTOR;
+
+		private static ExecutorService create() {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService) factory.invoke(null);
+			} catch(ReflectiveOperationException | RuntimeException e) {
+				return PlatformThreads.EXECUTOR; // Before Java 21, or with virtual threads disabled
+			}
+		}
+	}
+
+	/** Created on first use, see {@link #platformThreads()}. */
+	private static final class PlatformThreads {
+		static final ExecutorService EXECUTOR = create();
+
+		private static ExecutorService create() {
+			AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+				thread.setName("jquestrade-worker-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/** Created on first use, see {@link #decoders()}. */
+	static final class Decoders {
+		/** One thread per processor, since reading a body only waits for the rest of a response whose headers already arrived. */
+		static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+		static final ExecutorService EXECUTOR = create();
+
+		private static ExecutorService create() {
+			AtomicInteger count = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+				thread.setName("jquestrade-decoder-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+
+	/** Returns the executor that asynchronous responses are decoded on when a {@code Questrade} object has no executor set: a fixed number of
+	 * daemon threads (one per processor, at least 2), so that the number of threads doesn't grow with the number of requests in flight.
+	 * Responses beyond that wait in line. The threads stop when idle.
+	 */
+	static Executor decoders() {
+		return Decoders.EXECUTOR;
+	}
+
+	/** Returns an executor that runs each task on a new virtual thread, or {@link #platformThreads()} if virtual threads aren't available.
+	 * The executor is shared, and must not be shut down.
+	 * @return The shared virtual thread executor.
+	 */
+	public static Executor virtualThreads() {
+		return VirtualThreads.EXECUTOR;
+	}
+
+	/** Returns whether {@link #virtualThreads()} really uses virtual threads.
+	 * @return {@code true} if the runtime supports virtual threads.
+	 */
+	public static boolean hasVirtualThreads() {
+		return VirtualThreads.SUPPORTED;
+	}
+
+	/** Returns an executor that runs tasks on a cached pool of daemon platform threads, which are created as needed and reused.
+	 * The executor is shared, and must not be shut down.
+	 * @return The shared platform thread executor.
+	 */
+	public static Executor platformThreads() {
+		return PlatformThreads.EXECUTOR;
+	}
+}
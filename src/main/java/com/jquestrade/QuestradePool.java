@@ -0,0 +1,357 @@
+package com.jquestrade;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Hosts the {@link Questrade} objects of many users (tenants), such as an application that manages the logins of its end users.
+ * The tenants' objects already share the same transport, {@link Codec} and scheduler thread, and each keeps its own {@link RateLimiter},
+ * since Questrade rate limits each login separately. What the pool adds is a fair way of sending their requests: instead of every tenant
+ * having its own threads, requests are submitted to the pool, which sends them without blocking and bounds how many are in flight.<br><br>
+ *
+ * Tenants take turns: when more requests are waiting than can be sent, the pool sends one request of each waiting tenant in turn, and no
+ * tenant can have more than a few requests in flight at once. So one tenant with a thousand queued requests delays everyone else's by at
+ * most a few requests, rather than a thousand.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuestradePool pool = new QuestradePool();}<br>
+ * {@code pool.add("alice", aliceRefreshToken);}<br>
+ * {@code pool.submit("alice", q -> q.getBalances(accountNumber)).thenAccept(...);}
+ */
+public class QuestradePool {
+
+	/** The default for the most requests of all tenants in flight at once. */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+	/** The default for the most requests of one tenant in flight at once. */
+	public static final int DEFAULT_MAX_IN_FLIGHT_PER_TENANT = 4;
+
+	private final int maxInFlight;
+	private final int maxInFlightPerTenant;
+
+	/** The requests waiting to be started by the current thread, while it is starting requests. Requests that complete right away start the next
+	 * ones from their completion, so this keeps a long run of them from nesting deeper and deeper.
+	 */
+	private static final ThreadLocal<ArrayDeque<Runnable>> STARTING = new ThreadLocal<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/* Guarded by lock. */
+	private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+	/** The tenants that have requests waiting and room to send one, in the order that they get their turn. */
+	private final ArrayDeque<Tenant> turns = new ArrayDeque<>();
+	private int inFlight;
+
+	/** One tenant's {@code Questrade} object, its waiting requests and its usage. Guarded by {@link QuestradePool#lock}. */
+	private static final class Tenant {
+		final Questrade questrade;
+		final ArrayDeque<Call<?>> queue = new ArrayDeque<>();
+		int inFlight;
+		boolean waitingTurn;
+		boolean removed;
+		long completed;
+		long failed;
+
+		Tenant(Questrade questrade) {
+			this.questrade = questrade;
+		}
+	}
+
+	/** A submitted request. */
+	private static final class Call<T> {
+		final Function<QuestradeAsync, CompletableFuture<T>> request;
+		final CompletableFuture<T> result = new CompletableFuture<>();
+
+		Call(Function<QuestradeAsync, CompletableFuture<T>> request) {
+			this.request = request;
+		}
+	}
+
+	/** A tenant's usage of the pool at one point in time. */
+	public static final class Usage {
+		private final int queued;
+		private final int inFlight;
+		private final long completed;
+		private final long failed;
+
+		Usage(int queued, int inFlight, long completed, long failed) {
+			this.queued = queued;
+			this.inFlight = inFlight;
+			this.completed = completed;
+			this.failed = failed;
+		}
+
+		/** Returns the number of the tenant's requests waiting for their turn.
+		 * @return The number of waiting requests.
+		 */
+		public int getQueued() {
+			return queued;
+		}
+
+		/** Returns the number of the tenant's requests that have been sent but haven't completed.
+		 * @return The number of requests in flight.
+		 */
+		public int getInFlight() {
+			return inFlight;
+		}
+
+		/** Returns the number of the tenant's requests that completed successfully.
+		 * @return The number of successful requests.
+		 */
+		public long getCompleted() {
+			return completed;
+		}
+
+		/** Returns the number of the tenant's requests that failed.
+		 * @return The number of failed requests.
+		 */
+		public long getFailed() {
+			return failed;
+		}
+	}
+
+	/** Creates a pool with {@value #DEFAULT_MAX_IN_FLIGHT} requests in flight at most, and {@value #DEFAULT_MAX_IN_FLIGHT_PER_TENANT} per tenant. */
+	public QuestradePool() {
+		this(DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT_PER_TENANT);
+	}
+
+	/** Creates a pool.
+	 * @param maxInFlight The most requests of all tenants in flight at once.
+	 * @param maxInFlightPerTenant The most requests of one tenant in flight at once.
+	 * @throws ArgumentException If either limit is less than 1.
+	 */
+	public QuestradePool(int maxInFlight, int maxInFlightPerTenant) {
+		if(maxInFlight < 1 || maxInFlightPerTenant < 1) {
+			throw new ArgumentException("maxInFlight and maxInFlightPerTenant arguments cannot be less than 1");
+		}
+
+		this.maxInFlight = maxInFlight;
+		this.maxInFlightPerTenant = maxInFlightPerTenant;
+	}
+
+	/** Creates and activates a {@code Questrade} object for a tenant, and adds it to the pool.
+	 * @param tenantId The identifier to submit the tenant's requests with.
+	 * @param refreshToken The tenant's refresh token.
+	 * @return The tenant's {@code Questrade} object, such as to set its authorization relay function.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 * @throws ArgumentException If a tenant with the same identifier is already in the pool.
+	 */
+	public Questrade add(String tenantId, String refreshToken) throws RefreshTokenException {
+		Questrade questrade = new Questrade(refreshToken).activate();
+		add(tenantId, questrade);
+		return questrade;
+	}
+
+	/** Adds a tenant's activated {@code Questrade} object to the pool.
+	 * @param tenantId The identifier to submit the tenant's requests with.
+	 * @param questrade The tenant's activated {@code Questrade} object.
+	 * @throws ArgumentException If a tenant with the same identifier is already in the pool.
+	 */
+	public void add(String tenantId, Questrade questrade) {
+		lock.lock();
+		try {
+			if(tenants.containsKey(tenantId)) {
+				throw new ArgumentException("tenantId argument is already in the pool");
+			}
+			tenants.put(tenantId, new Tenant(questrade));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Removes a tenant from the pool. Its waiting requests are cancelled; its requests in flight still complete.
+	 * @param tenantId The identifier of the tenant.
+	 * @return The tenant's {@code Questrade} object, or {@code null} if there was no such tenant.
+	 */
+	public Questrade remove(String tenantId) {
+		List<Call<?>> cancelled;
+		Tenant tenant;
+		lock.lock();
+		try {
+			tenant = tenants.remove(tenantId);
+			if(tenant == null) {
+				return null;
+			}
+			tenant.removed = true;
+			turns.remove(tenant);
+			cancelled = new ArrayList<>(tenant.queue);
+			tenant.queue.clear();
+		} finally {
+			lock.unlock();
+		}
+
+		for(Call<?> call : cancelled) {
+			call.result.cancel(false);
+		}
+		return tenant.questrade;
+	}
+
+	/** Returns a tenant's {@code Questrade} object.
+	 * @param tenantId The identifier of the tenant.
+	 * @return The tenant's {@code Questrade} object, or {@code null} if there is no such tenant.
+	 */
+	public Questrade get(String tenantId) {
+		lock.lock();
+		try {
+			Tenant tenant = tenants.get(tenantId);
+			return tenant != null ? tenant.questrade : null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns the identifiers of the tenants in the pool.
+	 * @return The tenant identifiers, in the order they were added.
+	 */
+	public Set<String> getTenants() {
+		lock.lock();
+		try {
+			return Collections.unmodifiableSet(new LinkedHashSet<>(tenants.keySet()));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns a tenant's usage of the pool.
+	 * @param tenantId The identifier of the tenant.
+	 * @return The tenant's usage, or {@code null} if there is no such tenant.
+	 */
+	public Usage getUsage(String tenantId) {
+		lock.lock();
+		try {
+			Tenant tenant = tenants.get(tenantId);
+			return tenant != null ? new Usage(tenant.queue.size(), tenant.inFlight, tenant.completed, tenant.failed) : null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Queues a request of a tenant, which is sent when it's the tenant's turn. The request should only start the call, using the
+	 * given asynchronous view, and not block.<br><br>
+	 * Example: {@code pool.submit(tenantId, q -> q.getPositions(accountNumber))}
+	 * @param tenantId The identifier of the tenant.
+	 * @param request Starts the call with the tenant's {@link QuestradeAsync} view.
+	 * @return A future that completes with the result of the call, or is cancelled if the tenant is removed before it is sent.
+	 * @throws ArgumentException If there is no such tenant.
+	 */
+	public <T> CompletableFuture<T> submit(String tenantId, Function<QuestradeAsync, CompletableFuture<T>> request) {
+		Call<T> call = new Call<>(request);
+		List<Runnable> starts;
+
+		lock.lock();
+		try {
+			Tenant tenant = tenants.get(tenantId);
+			if(tenant == null) {
+				throw new ArgumentException("tenantId argument is not in the pool");
+			}
+			tenant.queue.add(call);
+			takeTurnLater(tenant);
+			starts = dispatch();
+		} finally {
+			lock.unlock();
+		}
+
+		run(starts);
+		return call.result;
+	}
+
+	/** Puts a tenant at the back of the line if it has requests waiting and room to send one. Must be called while holding {@link #lock}. */
+	private void takeTurnLater(Tenant tenant) {
+		if(!tenant.waitingTurn && !tenant.removed && !tenant.queue.isEmpty() && tenant.inFlight < maxInFlightPerTenant) {
+			tenant.waitingTurn = true;
+			turns.add(tenant);
+		}
+	}
+
+	/** Takes the next request of each tenant in turn, while there is room in flight. The requests are started after releasing the lock,
+	 * by running the returned tasks. Must be called while holding {@link #lock}.
+	 */
+	private List<Runnable> dispatch() {
+		List<Runnable> starts = new ArrayList<>();
+		while(inFlight < maxInFlight && !turns.isEmpty()) {
+			Tenant tenant = turns.poll();
+			tenant.waitingTurn = false;
+			Call<?> call = tenant.queue.poll();
+			tenant.inFlight++;
+			inFlight++;
+			starts.add(() -> start(tenant, call));
+			takeTurnLater(tenant);
+		}
+		return starts;
+	}
+
+	private <T> void start(Tenant tenant, Call<T> call) {
+		CompletableFuture<T> future;
+		try {
+			future = call.request.apply(tenant.questrade.async());
+			if(future == null) {
+				future = CompletableFuture.failedFuture(new NullPointerException("The submitted request returned a null future"));
+			}
+		} catch(RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+
+		future.whenComplete((result, e) -> {
+			List<Runnable> starts;
+			lock.lock();
+			try {
+				tenant.inFlight--;
+				inFlight--;
+				if(e != null) {
+					tenant.failed++;
+				} else {
+					tenant.completed++;
+				}
+				takeTurnLater(tenant);
+				starts = dispatch();
+			} finally {
+				lock.unlock();
+			}
+
+			if(e != null) {
+				call.result.completeExceptionally(e);
+			} else {
+				call.result.complete(result);
+			}
+			run(starts);
+		});
+	}
+
+	/** Runs the tasks that start requests, or hands them to the current thread's outer call if it's already running some. */
+	private static void run(List<Runnable> starts) {
+		ArrayDeque<Runnable> pending = STARTING.get();
+		if(pending != null) {
+			pending.addAll(starts);
+			return;
+		}
+
+		pending = new ArrayDeque<>(starts);
+		STARTING.set(pending);
+		try {
+			Runnable start;
+			while((start = pending.poll()) != null) {
+				try {
+					start.run();
+				} catch(RuntimeException e) {
+					// The requests after it were already taken off their queues and counted in flight, so they must still start
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			STARTING.remove();
+		}
+	}
+}
@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a single Level 1 market data quote for a ticker. <br><br>
  * <b>IMPORTANT NOTE:</b> The Questrade user needs to be subscribed to a real-time data package, 
  * to receive market quotes in real-time, otherwise call to get quote is considered snap quote and 
@@ -185,4 +192,79 @@ public class Quote {
 	public double getVWAP() {
 		return VWAP;
 	}
+	
+	/** Reads and writes {@code Quote} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Quote> {
+		
+		@Override
+		public Quote read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Quote quote = new Quote();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "symbol": quote.symbol = Codec.nextString(in); break;
+					case "symbolId": quote.symbolId = Codec.nextLong(in); break;
+					case "tier": quote.tier = Codec.nextString(in); break;
+					case "bidPrice": quote.bidPrice = Codec.nextDouble(in); break;
+					case "bidSize": quote.bidSize = Codec.nextInt(in); break;
+					case "askPrice": quote.askPrice = Codec.nextDouble(in); break;
+					case "askSize": quote.askSize = Codec.nextInt(in); break;
+					case "lastTradePriceTrHrs": quote.lastTradePriceTrHrs = Codec.nextDouble(in); break;
+					case "lastTradePrice": quote.lastTradePrice = Codec.nextDouble(in); break;
+					case "lastTradeSize": quote.lastTradeSize = Codec.nextInt(in); break;
+					case "lastTradeTick": quote.lastTradeTick = Codec.nextString(in); break;
+					case "lastTradeTime": quote.lastTradeTime = Codec.nextString(in); break;
+					case "volume": quote.volume = Codec.nextLong(in); break;
+					case "openPrice": quote.openPrice = Codec.nextDouble(in); break;
+					case "highPrice": quote.highPrice = Codec.nextDouble(in); break;
+					case "lowPrice": quote.lowPrice = Codec.nextDouble(in); break;
+					case "delay": quote.delay = Codec.nextInt(in); break;
+					case "isHalted": quote.isHalted = Codec.nextBoolean(in); break;
+					case "high52w": quote.high52w = Codec.nextDouble(in); break;
+					case "low52w": quote.low52w = Codec.nextDouble(in); break;
+					case "VWAP": quote.VWAP = Codec.nextDouble(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return quote;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Quote quote) throws IOException {
+			if(quote == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("symbol").value(quote.symbol);
+			out.name("symbolId").value(quote.symbolId);
+			out.name("tier").value(quote.tier);
+			out.name("bidPrice").value(quote.bidPrice);
+			out.name("bidSize").value(quote.bidSize);
+			out.name("askPrice").value(quote.askPrice);
+			out.name("askSize").value(quote.askSize);
+			out.name("lastTradePriceTrHrs").value(quote.lastTradePriceTrHrs);
+			out.name("lastTradePrice").value(quote.lastTradePrice);
+			out.name("lastTradeSize").value(quote.lastTradeSize);
+			out.name("lastTradeTick").value(quote.lastTradeTick);
+			out.name("lastTradeTime").value(quote.lastTradeTime);
+			out.name("volume").value(quote.volume);
+			out.name("openPrice").value(quote.openPrice);
+			out.name("highPrice").value(quote.highPrice);
+			out.name("lowPrice").value(quote.lowPrice);
+			out.name("delay").value(quote.delay);
+			out.name("isHalted").value(quote.isHalted);
+			out.name("high52w").value(quote.high52w);
+			out.name("low52w").value(quote.low52w);
+			out.name("VWAP").value(quote.VWAP);
+			out.endObject();
+		}
+	}
 }
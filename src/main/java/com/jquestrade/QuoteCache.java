@@ -0,0 +1,316 @@
+package com.jquestrade;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** A cache in front of {@link Questrade#getQuote(int[])}, for when many parts of an application ask for the same symbols within a short time.
+ * A cached quote is <i>fresh</i> for the time-to-live, and is returned without a request. After that, it is <i>stale</i> for up to
+ * {@code maxStale}: a stale quote is still returned right away, but a request for a new one is started in the background
+ * (stale-while-revalidate). Older quotes are treated as missing. Misses and background refreshes are sent through a {@link QuoteCoalescer},
+ * so the ones that happen at about the same time share a request.<br><br>
+ *
+ * The cache holds at most {@code maxSize} quotes. When it grows past that, it evicts the least recently read of a few quotes picked at
+ * random, which approximates evicting the least recently read quote without having to order the quotes on every read (caches of up to
+ * 16 quotes evict exactly the least recently read one). The hit, stale hit, miss and eviction counts can be used
+ * to tune the settings.
+ */
+public class QuoteCache {
+
+	/** How many entries to look at when choosing one to evict. */
+	private static final int EVICTION_SAMPLE_SIZE = 16;
+
+	private final QuoteCoalescer source;
+	private final long ttlNanos;
+	private final long maxStaleNanos;
+	private final int maxSize;
+
+	private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+	/** Serializes the changes to the entries, so that they stay in step with {@link #keys}. Reads don't take it. */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** The symbol IDs of the entries, in no particular order, so that entries can be picked at random. Guarded by {@link #lock}. */
+	private long[] keys = new long[EVICTION_SAMPLE_SIZE];
+	private int count;
+
+	/** The requests in flight, by symbol ID, so that a symbol is only requested once at a time. */
+	private final Map<Long, CompletableFuture<Quote>> loading = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder staleHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/** A cached quote. */
+	private static final class Entry {
+		final Quote quote;
+		final long fetchedAt;
+		volatile long lastRead;
+		final AtomicBoolean refreshing = new AtomicBoolean();
+		/** Where the entry's symbol ID is in {@link QuoteCache#keys}. Guarded by {@link QuoteCache#lock}. */
+		int index;
+
+		Entry(Quote quote, long fetchedAt) {
+			this.quote = quote;
+			this.fetchedAt = fetchedAt;
+			this.lastRead = fetchedAt;
+		}
+	}
+
+	/** Creates a cache that requests quotes with its own {@link QuoteCoalescer}, which has the default settings.
+	 * @param questrade The activated {@code Questrade} object to request quotes with.
+	 * @param ttl How long a quote is fresh for after it is retrieved.
+	 * @param maxStale How long after becoming stale a quote can still be returned while a new one is requested.
+	 * Use {@code Duration.ZERO} to never return stale quotes.
+	 * @param maxSize The most quotes to hold.
+	 * @throws ArgumentException If a duration is negative or maxSize is less than 1.
+	 */
+	public QuoteCache(Questrade questrade, Duration ttl, Duration maxStale, int maxSize) {
+		this(new QuoteCoalescer(questrade), ttl, maxStale, maxSize);
+	}
+
+	/** Creates a cache that requests quotes through the given coalescer, which can be shared with other parts of the application.
+	 * @param source The coalescer to request quotes through.
+	 * @param ttl How long a quote is fresh for after it is retrieved.
+	 * @param maxStale How long after becoming stale a quote can still be returned while a new one is requested.
+	 * Use {@code Duration.ZERO} to never return stale quotes.
+	 * @param maxSize The most quotes to hold.
+	 * @throws ArgumentException If a duration is negative or maxSize is less than 1.
+	 */
+	public QuoteCache(QuoteCoalescer source, Duration ttl, Duration maxStale, int maxSize) {
+		if(ttl.isNegative() || maxStale.isNegative()) {
+			throw new ArgumentException("ttl and maxStale arguments cannot be negative");
+		} else if(maxSize < 1) {
+			throw new ArgumentException("maxSize argument cannot be less than 1");
+		}
+
+		this.source = source;
+		this.ttlNanos = ttl.toNanos();
+		this.maxStaleNanos = maxStale.toNanos();
+		this.maxSize = maxSize;
+	}
+
+	/** Returns the quote for a symbol, from the cache if it is fresh or stale, otherwise from the Questrade API.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return The quote for the symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws ArgumentException If no quote was returned for the symbol.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public Quote getQuote(int symbolId) throws RefreshTokenException {
+		Quote quote = lookup(symbolId);
+		return quote != null ? quote : Questrade.join(load(symbolId));
+	}
+
+	/** The asynchronous equivalent of {@link #getQuote(int)}.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return A future that completes with the quote for the symbol. It is already complete if the quote was cached.
+	 */
+	public CompletableFuture<Quote> getQuoteAsync(int symbolId) {
+		Quote quote = lookup(symbolId);
+		return quote != null ? CompletableFuture.completedFuture(quote) : load(symbolId);
+	}
+
+	/** Returns the cached quote for a symbol without ever making a request, even if it is stale or expired.
+	 * Doesn't count as a hit or a miss.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return The cached quote, or {@code null} if the symbol isn't cached.
+	 */
+	public Quote peek(int symbolId) {
+		Entry entry = entries.get((long) symbolId);
+		return entry != null ? entry.quote : null;
+	}
+
+	/** Returns the cached quote if it is fresh or stale, starting a background refresh if it is stale.
+	 * @return The quote, or {@code null} on a miss.
+	 */
+	private Quote lookup(int symbolId) {
+		Entry entry = entries.get((long) symbolId);
+		if(entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		long now = System.nanoTime();
+		long age = now - entry.fetchedAt;
+
+		if(age < ttlNanos) {
+			hits.increment();
+		} else if(age - ttlNanos < maxStaleNanos) {
+			staleHits.increment();
+			if(entry.refreshing.compareAndSet(false, true)) {
+				load(symbolId).whenComplete((quote, e) -> entry.refreshing.set(false));
+			}
+		} else {
+			misses.increment();
+			return null;
+		}
+
+		entry.lastRead = now;
+		return entry.quote;
+	}
+
+	/** Requests the quote for a symbol and caches it, unless a request for it is already in flight. */
+	private CompletableFuture<Quote> load(int symbolId) {
+		Long key = (long) symbolId;
+
+		CompletableFuture<Quote> existing = loading.get(key);
+		if(existing != null) {
+			return existing;
+		}
+
+		CompletableFuture<Quote> created = new CompletableFuture<>();
+		existing = loading.putIfAbsent(key, created);
+		if(existing != null) {
+			return existing;
+		}
+
+		source.getQuoteAsync(symbolId).whenComplete((quote, e) -> {
+			if(quote != null) {
+				put(quote);
+			}
+			loading.remove(key, created);
+
+			if(e != null) {
+				created.completeExceptionally(e);
+			} else {
+				created.complete(quote);
+			}
+		});
+		return created;
+	}
+
+	/** Caches the given quote, evicting others if the cache is over its maximum size. */
+	private void put(Quote quote) {
+		Long key = quote.getSymbolId();
+		Entry entry = new Entry(quote, System.nanoTime());
+
+		lock.lock();
+		try {
+			Entry replaced = entries.put(key, entry);
+			if(replaced != null) {
+				entry.index = replaced.index;
+			} else {
+				if(count == keys.length) {
+					keys = Arrays.copyOf(keys, count * 2);
+				}
+				keys[count] = key;
+				entry.index = count++;
+			}
+
+			while(count > maxSize) {
+				evictOne();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Evicts the least recently read entry out of a random sample, or out of all the entries if there are only a few.
+	 * Must be called while holding {@link #lock}.
+	 */
+	private void evictOne() {
+		boolean sampled = count > EVICTION_SAMPLE_SIZE;
+		int candidates = sampled ? EVICTION_SAMPLE_SIZE : count;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		long victim = 0;
+		long oldest = 0;
+		for(int i = 0; i < candidates; i++) {
+			long key = keys[sampled ? random.nextInt(count) : i];
+			long lastRead = entries.get(key).lastRead;
+			if(i == 0 || lastRead - oldest < 0) {
+				victim = key;
+				oldest = lastRead;
+			}
+		}
+
+		if(remove(victim)) {
+			evictions.increment();
+		}
+	}
+
+	/** Removes an entry, moving the last symbol ID into its place in {@link #keys}. Must be called while holding {@link #lock}. */
+	private boolean remove(long key) {
+		Entry entry = entries.remove(key);
+		if(entry == null) {
+			return false;
+		}
+
+		long moved = keys[--count];
+		if(moved != key) {
+			keys[entry.index] = moved;
+			entries.get(moved).index = entry.index;
+		}
+		return true;
+	}
+
+	/** Removes a symbol's quote from the cache, so that the next read requests a new one.
+	 * @param symbolId The internal identifier of the symbol.
+	 */
+	public void invalidate(int symbolId) {
+		lock.lock();
+		try {
+			remove(symbolId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Removes all quotes from the cache. The counters are not reset. */
+	public void clear() {
+		lock.lock();
+		try {
+			entries.clear();
+			count = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns the number of quotes in the cache.
+	 * @return The number of quotes in the cache.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/** Returns how many reads found a fresh quote.
+	 * @return The number of fresh hits.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/** Returns how many reads found a stale quote, which was returned while a new one was requested.
+	 * @return The number of stale hits.
+	 */
+	public long getStaleHitCount() {
+		return staleHits.sum();
+	}
+
+	/** Returns how many reads found no usable quote and had to wait for a request.
+	 * @return The number of misses.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/** Returns how many quotes were evicted to keep the cache within its maximum size.
+	 * @return The number of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+}
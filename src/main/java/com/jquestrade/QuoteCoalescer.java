@@ -0,0 +1,197 @@
+package com.jquestrade;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Combines the quote requests that many threads make at about the same time into one request. The first request for a symbol opens a short
+ * window; every symbol requested during that window (or until {@code maxIds} different symbols are waiting) is sent in a single
+ * <b>GET markets/quotes</b> request, and each caller gets back the {@link Quote} for the symbol that it asked for. Concurrent requests
+ * for the same symbol share one slot in the request.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuoteCoalescer quotes = new QuoteCoalescer(q, Duration.ofMillis(5), 100);}<br>
+ * {@code Quote quote = quotes.getQuote(8049); // From any number of threads}
+ * @see Questrade#getQuote(int[])
+ */
+public class QuoteCoalescer {
+
+	/** The window used by {@link #QuoteCoalescer(Questrade)}. */
+	public static final Duration DEFAULT_WINDOW = Duration.ofMillis(5);
+
+	/** The maximum number of symbols per request used by {@link #QuoteCoalescer(Questrade)}. */
+	public static final int DEFAULT_MAX_IDS = 100;
+
+	private final Questrade questrade;
+	private final long windowNanos;
+	private final int maxIds;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** The requests waiting for the current window to close, by symbol ID. Guarded by {@link #lock}. */
+	private Map<Long, CompletableFuture<Quote>> pending = new LinkedHashMap<>();
+
+	/** Closes the current window. Guarded by {@link #lock}. */
+	private ScheduledFuture<?> flushTask;
+
+	/** Creates a coalescer with a window of {@link #DEFAULT_WINDOW} and up to {@link #DEFAULT_MAX_IDS} symbols per request.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 */
+	public QuoteCoalescer(Questrade questrade) {
+		this(questrade, DEFAULT_WINDOW, DEFAULT_MAX_IDS);
+	}
+
+	/** Creates a coalescer.
+	 * @param questrade The activated {@code Questrade} object to send the requests with.
+	 * @param window How long to wait for more requests after the first request of a batch. This is the most latency that coalescing adds.
+	 * @param maxIds The most symbols to put in one request. A batch is sent as soon as it reaches this many symbols.
+	 * @throws ArgumentException If the window is negative or maxIds is less than 1.
+	 */
+	public QuoteCoalescer(Questrade questrade, Duration window, int maxIds) {
+		if(window.isNegative()) {
+			throw new ArgumentException("window argument cannot be negative");
+		} else if(maxIds < 1) {
+			throw new ArgumentException("maxIds argument cannot be less than 1");
+		}
+
+		this.questrade = questrade;
+		this.windowNanos = window.toNanos();
+		this.maxIds = maxIds;
+	}
+
+	/** Retrieves the quote for a symbol, sharing the request with any other quotes requested during the same window.
+	 * Blocks until the quote arrives.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return The quote for the symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws ArgumentException If no quote was returned for the symbol.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public Quote getQuote(int symbolId) throws RefreshTokenException {
+		return Questrade.join(getQuoteAsync(symbolId));
+	}
+
+	/** The asynchronous equivalent of {@link #getQuote(int)}.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return A future that completes with the quote for the symbol.
+	 */
+	public CompletableFuture<Quote> getQuoteAsync(int symbolId) {
+		CompletableFuture<Quote> future;
+		Map<Long, CompletableFuture<Quote>> full = null;
+
+		lock.lock();
+		try {
+			future = pending.get((long) symbolId);
+			if(future == null) {
+				future = new CompletableFuture<>();
+				pending.put((long) symbolId, future);
+
+				if(pending.size() >= maxIds) {
+					full = takePending();
+				} else if(pending.size() == 1) {
+					flushTask = SharedScheduler.get().schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if(full != null) {
+			send(full);
+		}
+
+		// A copy, so that a caller cancelling its future doesn't cancel it for the others waiting on the same symbol
+		return future.copy();
+	}
+
+	/** Sends the current batch right away, without waiting for its window to close. */
+	public void flush() {
+		Map<Long, CompletableFuture<Quote>> batch;
+
+		lock.lock();
+		try {
+			if(pending.isEmpty()) {
+				return;
+			}
+			batch = takePending();
+		} finally {
+			lock.unlock();
+		}
+
+		send(batch);
+	}
+
+	/** Takes the current batch and starts a new one. Must be called while holding {@link #lock}. */
+	private Map<Long, CompletableFuture<Quote>> takePending() {
+		if(flushTask != null) {
+			flushTask.cancel(false);
+			flushTask = null;
+		}
+
+		Map<Long, CompletableFuture<Quote>> batch = pending;
+		pending = new LinkedHashMap<>();
+		return batch;
+	}
+
+	/** Sends one request for all of the symbols in the batch and hands each quote to the requests waiting on its symbol. */
+	private void send(Map<Long, CompletableFuture<Quote>> batch) {
+		List<Long> symbolIds = new ArrayList<>(batch.keySet());
+		int[] ids = new int[symbolIds.size()];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = symbolIds.get(i).intValue();
+		}
+
+		CompletableFuture<Quote[]> sent;
+		try {
+			sent = questrade.async().getQuote(ids);
+		} catch(RuntimeException e) {
+			// Such as when flushing from the scheduler thread, where nobody else would see it
+			sent = CompletableFuture.failedFuture(e);
+		}
+
+		sent.whenComplete((quotes, e) -> {
+			try {
+				complete(batch, quotes, e);
+			} catch(RuntimeException unexpected) {
+				batch.values().forEach(future -> future.completeExceptionally(unexpected));
+			}
+		});
+	}
+
+	/** Completes each request of a batch with its symbol's quote, or with the failure of the batch's request. */
+	private static void complete(Map<Long, CompletableFuture<Quote>> batch, Quote[] quotes, Throwable e) {
+		if(e != null) {
+			batch.values().forEach(future -> future.completeExceptionally(e));
+			return;
+		}
+
+		Map<Long, Quote> bySymbolId = new HashMap<>();
+		if(quotes != null) {
+			for(Quote quote : quotes) {
+				if(quote != null) {
+					bySymbolId.put(quote.getSymbolId(), quote);
+				}
+			}
+		}
+
+		batch.forEach((symbolId, future) -> {
+			Quote quote = bySymbolId.get(symbolId);
+			if(quote != null) {
+				future.complete(quote);
+			} else {
+				future.completeExceptionally(new ArgumentException("No quote was returned for symbol " + symbolId));
+			}
+		});
+	}
+}
@@ -0,0 +1,103 @@
+package com.jquestrade;
+
+/** Represents what changed between two consecutive quotes of a symbol, as a bitmask of the fields below. Created by a {@link QuoteDiffer}.<br><br>
+ *
+ * Example usage:<br>
+ * {@code if(delta.has(QuoteDelta.BID | QuoteDelta.ASK)) updateSpread(delta.getQuote());}
+ */
+public final class QuoteDelta {
+
+	/** The bid price changed. */
+	public static final int BID = 1;
+	/** The ask price changed. */
+	public static final int ASK = 1 << 1;
+	/** The last trade price changed. */
+	public static final int LAST = 1 << 2;
+	/** The bid size, ask size, or last trade size changed. */
+	public static final int SIZE = 1 << 3;
+	/** The volume changed. */
+	public static final int VOLUME = 1 << 4;
+	/** The trading halt status changed. */
+	public static final int HALTED = 1 << 5;
+	/** Every field. The changes of a symbol's first quote. */
+	public static final int ALL = BID | ASK | LAST | SIZE | VOLUME | HALTED;
+
+	private final Quote previous;
+	private final Quote quote;
+	private final int changes;
+
+	QuoteDelta(Quote previous, Quote quote, int changes) {
+		this.previous = previous;
+		this.quote = quote;
+		this.changes = changes;
+	}
+
+	/** Returns the fields that changed between two quotes of a symbol.
+	 * @param previous The earlier quote, or {@code null} if there isn't one.
+	 * @param quote The later quote.
+	 * @return The bitmask of the fields that changed, or {@link #ALL} if there is no earlier quote.
+	 */
+	public static int changes(Quote previous, Quote quote) {
+		if(previous == null) {
+			return ALL;
+		}
+
+		int changes = 0;
+		if(previous.getBidPrice() != quote.getBidPrice()) {
+			changes |= BID;
+		}
+		if(previous.getAskPrice() != quote.getAskPrice()) {
+			changes |= ASK;
+		}
+		if(previous.getLastTradePrice() != quote.getLastTradePrice()) {
+			changes |= LAST;
+		}
+		if(previous.getBidSize() != quote.getBidSize() || previous.getAskSize() != quote.getAskSize()
+				|| previous.getLastTradeSize() != quote.getLastTradeSize()) {
+			changes |= SIZE;
+		}
+		if(previous.getVolume() != quote.getVolume()) {
+			changes |= VOLUME;
+		}
+		if(previous.isHalted() != quote.isHalted()) {
+			changes |= HALTED;
+		}
+		return changes;
+	}
+
+	/** Returns the internal symbol identifier.
+	 * @return The internal symbol identifier.
+	 */
+	public long getSymbolId() {
+		return quote.getSymbolId();
+	}
+
+	/** Returns the new quote.
+	 * @return The new quote.
+	 */
+	public Quote getQuote() {
+		return quote;
+	}
+
+	/** Returns the quote that the new quote was compared to.
+	 * @return The previous quote, or {@code null} if this is the symbol's first quote.
+	 */
+	public Quote getPrevious() {
+		return previous;
+	}
+
+	/** Returns the fields that changed.
+	 * @return The bitmask of the fields that changed. (Eg: {@code BID | SIZE})
+	 */
+	public int getChanges() {
+		return changes;
+	}
+
+	/** Returns whether any of the given fields changed.
+	 * @param fields The bitmask of the fields to check. (Eg: {@code BID | ASK})
+	 * @return {@code true} if at least one of the fields changed.
+	 */
+	public boolean has(int fields) {
+		return (changes & fields) != 0;
+	}
+}
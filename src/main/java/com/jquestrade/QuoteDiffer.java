@@ -0,0 +1,94 @@
+package com.jquestrade;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Compares each quote to the previous quote of its symbol, and only passes on the ones that changed, as {@link QuoteDelta}s. Polled quotes
+ * of quiet symbols are mostly identical to the previous poll, so listeners of a differ only do work when something actually changed.<br><br>
+ *
+ * A differ is itself a quote listener, and like a {@link QuoteTable}, it must only be given quotes by one thread at a time.
+ * The latest quotes it has seen can be read from any thread with {@link #getLatest()}.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuoteDiffer differ = new QuoteDiffer();}<br>
+ * {@code differ.addListener(delta -> { if(delta.has(QuoteDelta.LAST)) ... });}<br>
+ * {@code stream.addListener(differ);}
+ */
+public class QuoteDiffer implements Consumer<Quote> {
+
+	private final QuoteTable latest = new QuoteTable();
+	private final List<Consumer<QuoteDelta>> listeners = new CopyOnWriteArrayList<>();
+	private volatile int fields = QuoteDelta.ALL;
+
+	/** Adds a listener that is called with every change, on the thread that gave the differ the quote.
+	 * @param listener The listener.
+	 * @return This {@code QuoteDiffer} object. Allows for chaining methods.
+	 */
+	public QuoteDiffer addListener(Consumer<QuoteDelta> listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/** Removes a listener.
+	 * @param listener The listener to remove.
+	 */
+	public void removeListener(Consumer<QuoteDelta> listener) {
+		listeners.remove(listener);
+	}
+
+	/** Sets the fields that listeners care about. Quotes where none of them changed aren't passed on. By default, this is {@link QuoteDelta#ALL}.
+	 * @param fields The bitmask of the fields. (Eg: {@code QuoteDelta.BID | QuoteDelta.ASK})
+	 * @return This {@code QuoteDiffer} object. Allows for chaining methods.
+	 */
+	public QuoteDiffer setFields(int fields) {
+		this.fields = fields;
+		return this;
+	}
+
+	/** Compares a quote to the previous quote of its symbol, and calls the listeners if any of the fields changed.
+	 * @param quote The new quote.
+	 */
+	@Override
+	public void accept(Quote quote) {
+		Quote previous = latest.get(quote.getSymbolId());
+		int changes = QuoteDelta.changes(previous, quote) & fields;
+		if(changes == 0) {
+			return;
+		}
+
+		// Only kept when passed on, so that changes too small to pass on individually still add up to one
+		latest.put(quote);
+		QuoteDelta delta = new QuoteDelta(previous, quote, changes);
+		for(Consumer<QuoteDelta> listener : listeners) {
+			try {
+				listener.accept(delta);
+			} catch(RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/** Compares quotes to the previous quotes of their symbols. See {@link #accept(Quote)}.
+	 * @param quotes The new quotes.
+	 */
+	public void acceptAll(Quote[] quotes) {
+		for(Quote quote : quotes) {
+			accept(quote);
+		}
+	}
+
+	/** Forgets the previous quote of a symbol, so that its next quote is passed on with every field changed.
+	 * @param symbolId The internal identifier of the symbol.
+	 */
+	public void forget(long symbolId) {
+		latest.remove(symbolId);
+	}
+
+	/** Returns the latest quote of each symbol that was passed on to the listeners.
+	 * @return The table of quotes. Can be read from any thread.
+	 */
+	public QuoteTable getLatest() {
+		return latest;
+	}
+}
@@ -0,0 +1,410 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/** Streams Level 1 quotes from Questrade's quote streaming port, instead of polling {@link Questrade#getQuote(int[])}. A quote request with
+ * {@code stream=true} returns the port of a WebSocket feed; once connected and logged in with the access token, the feed pushes a quote every
+ * time one of the subscribed symbols changes.<br><br>
+ *
+ * Each listener is called on the delivery executor, one quote at a time. A listener that can't keep up doesn't slow down the feed or use more
+ * and more memory: while it is busy, only the latest quote of each symbol is kept for it, and older ones are dropped (conflated).<br><br>
+ *
+ * If the connection drops, the stream requests a new port for the current symbols and reconnects, waiting longer after each failure
+ * (from 1 second up to 30 seconds). Since a port only streams the symbols it was requested for, changing the subscribed symbols also reconnects.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuoteStream stream = new QuoteStream(q);}<br>
+ * {@code stream.addListener(quote -> System.out.println(quote.getSymbol() + " " + quote.getLastTradePrice()));}<br>
+ * {@code stream.subscribe(8049, 9292);}
+ * @see <a href="https://www.questrade.com/api/documentation/streaming">The Questrade API streaming documentation</a>
+ */
+public class QuoteStream {
+
+	/** Where the stream connects to. The default endpoint requests a streaming port from the Questrade API; others can be used to
+	 * connect to a local stand-in, such as in tests.
+	 */
+	public interface Endpoint {
+		/** Prepares a feed for the given symbols.
+		 * @param symbolIds The internal identifiers of the symbols to stream.
+		 * @return A future that completes with the URI of the WebSocket to connect to.
+		 */
+		CompletableFuture<URI> open(int[] symbolIds);
+
+		/** Returns the message to send right after connecting, such as an access token.
+		 * @return The first message to send, or {@code null} to not send one.
+		 */
+		String login();
+	}
+
+	private static final long MIN_RECONNECT_DELAY_MILLIS = 1000;
+	private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+	private final Endpoint endpoint;
+	private final HttpClient client;
+	private volatile Executor executor = ForkJoinPool.commonPool();
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/* Guarded by lock (generation is also read without it). */
+	private final Set<Integer> symbolIds = new TreeSet<>();
+	private WebSocket socket;
+	/** Incremented on every (re)connection, so that the events of a replaced connection can be told apart and ignored. */
+	private volatile long generation;
+	private int failures;
+	private ScheduledFuture<?> reconnectTask;
+	private boolean closed;
+
+	/** Creates a stream that gets its streaming ports from the Questrade API.
+	 * @param questrade The activated {@code Questrade} object to request streaming ports with.
+	 */
+	public QuoteStream(Questrade questrade) {
+		this(new Endpoint() {
+			@Override
+			public CompletableFuture<URI> open(int[] symbolIds) {
+				return questrade.sendRequestAsync(questrade.quoteStreamRequest(symbolIds), Codec.STREAM_PORT).thenApply(port -> {
+					URI apiServer = URI.create(questrade.getAuthorization().getApiServer());
+					return URI.create("wss://" + apiServer.getHost() + ":" + port + "/");
+				});
+			}
+
+			@Override
+			public String login() {
+				return questrade.getAuthorization().getAccessToken();
+			}
+		});
+	}
+
+	/** Creates a stream that connects to the given endpoint.
+	 * @param endpoint The endpoint to connect to.
+	 */
+	public QuoteStream(Endpoint endpoint) {
+		this.endpoint = endpoint;
+		this.client = HttpClientTransport.getShared().getClient();
+	}
+
+	/** Sets the executor that listeners are called on. By default, this is {@link ForkJoinPool#commonPool()}.
+	 * @param executor The executor to call listeners on.
+	 * @return This {@code QuoteStream} object. Allows for chaining methods.
+	 */
+	public QuoteStream setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/** Adds a listener that is called with every quote received.
+	 * @param listener The listener.
+	 * @return This {@code QuoteStream} object. Allows for chaining methods.
+	 */
+	public QuoteStream addListener(Consumer<Quote> listener) {
+		subscribers.add(new Subscriber(listener));
+		return this;
+	}
+
+	/** Removes a listener. Quotes that were already waiting for it may still be delivered.
+	 * @param listener The listener to remove.
+	 */
+	public void removeListener(Consumer<Quote> listener) {
+		subscribers.removeIf(subscriber -> subscriber.listener == listener);
+	}
+
+	/** Starts streaming the given symbols, in addition to the ones already subscribed to. Reconnects if any of them are new.
+	 * @param ids The internal identifiers of the symbols.
+	 * @throws IllegalStateException If the stream was closed.
+	 */
+	public void subscribe(int ...ids) {
+		lock.lock();
+		try {
+			checkOpen();
+			boolean changed = false;
+			for(int id : ids) {
+				changed |= symbolIds.add(id);
+			}
+			if(changed) {
+				connect();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Stops streaming the given symbols. Reconnects if any of them were subscribed to, or disconnects if no symbols are left.
+	 * @param ids The internal identifiers of the symbols.
+	 * @throws IllegalStateException If the stream was closed.
+	 */
+	public void unsubscribe(int ...ids) {
+		lock.lock();
+		try {
+			checkOpen();
+			boolean changed = false;
+			for(int id : ids) {
+				changed |= symbolIds.remove(id);
+			}
+			if(changed) {
+				connect();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns whether the stream is connected.
+	 * @return {@code true} if the stream has an open connection.
+	 */
+	public boolean isConnected() {
+		lock.lock();
+		try {
+			return socket != null && !socket.isInputClosed();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Disconnects and stops reconnecting. A closed stream can't be used again. */
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			generation++;
+			disconnect();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void checkOpen() {
+		if(closed) {
+			throw new IllegalStateException("The stream was closed");
+		}
+	}
+
+	/** Replaces the current connection with one for the current symbols. Must be called while holding {@link #lock}. */
+	private void connect() {
+		long connection = ++generation;
+		disconnect();
+
+		if(symbolIds.isEmpty()) {
+			return;
+		}
+
+		int[] ids = symbolIds.stream().mapToInt(Integer::intValue).toArray();
+		CompletableFuture<WebSocket> opened;
+		try {
+			opened = endpoint.open(ids)
+					.thenCompose(uri -> client.newWebSocketBuilder().buildAsync(uri, new SocketListener(connection)));
+		} catch(RuntimeException e) {
+			opened = CompletableFuture.failedFuture(e);
+		}
+
+		opened.whenComplete((webSocket, e) -> {
+			if(e != null) {
+				reconnectLater(connection);
+				return;
+			}
+
+			lock.lock();
+			try {
+				if(connection != generation) {
+					webSocket.abort(); // Replaced while connecting
+					return;
+				}
+				socket = webSocket;
+			} finally {
+				lock.unlock();
+			}
+
+			String login = endpoint.login();
+			if(login != null) {
+				webSocket.sendText(login, true);
+			}
+		});
+	}
+
+	/** Closes the current connection and cancels any pending reconnection. Must be called while holding {@link #lock}. */
+	private void disconnect() {
+		if(reconnectTask != null) {
+			reconnectTask.cancel(false);
+			reconnectTask = null;
+		}
+		if(socket != null) {
+			socket.abort();
+			socket = null;
+		}
+	}
+
+	/** Schedules a reconnection after a failure of the given connection, unless it was already replaced. */
+	private void reconnectLater(long connection) {
+		lock.lock();
+		try {
+			if(closed || connection != generation || reconnectTask != null) {
+				return;
+			}
+
+			socket = null;
+			long delay = Math.min(MIN_RECONNECT_DELAY_MILLIS << Math.min(failures, 16), MAX_RECONNECT_DELAY_MILLIS);
+			failures++;
+			reconnectTask = SharedScheduler.get().schedule(() -> {
+				lock.lock();
+				try {
+					if(connection == generation) {
+						reconnectTask = null;
+						connect();
+					}
+				} finally {
+					lock.unlock();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Decodes the messages of one connection. Only one message is requested at a time, so the feed is read no faster than it is decoded. */
+	private final class SocketListener implements WebSocket.Listener {
+		private final long connection;
+		private final StringBuilder message = new StringBuilder();
+
+		SocketListener(long connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void onOpen(WebSocket webSocket) {
+			webSocket.request(1);
+		}
+
+		@Override
+		public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+			message.append(data);
+			if(last) {
+				String text = message.toString();
+				message.setLength(0);
+				received(connection, text);
+			}
+			webSocket.request(1);
+			return null;
+		}
+
+		@Override
+		public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+			reconnectLater(connection);
+			return null;
+		}
+
+		@Override
+		public void onError(WebSocket webSocket, Throwable error) {
+			reconnectLater(connection);
+		}
+	}
+
+	/** Hands the quotes of a message to every listener. Messages without quotes, such as the reply to the login, are ignored. */
+	private void received(long connection, String text) {
+		Quote[] quotes;
+		try {
+			quotes = Codec.QUOTES.fromJson(text);
+		} catch(IOException | RuntimeException e) {
+			return;
+		}
+
+		if(quotes == null || connection != generation) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			failures = 0; // The connection works, so the next failure starts over at the shortest delay
+		} finally {
+			lock.unlock();
+		}
+
+		for(Subscriber subscriber : subscribers) {
+			subscriber.offer(quotes);
+		}
+	}
+
+	/** A listener and the quotes waiting for it, at most one per symbol. */
+	private final class Subscriber {
+		final Consumer<Quote> listener;
+		private final ReentrantLock lock = new ReentrantLock();
+
+		/* Guarded by lock. */
+		private Map<Long, Quote> pending = new LinkedHashMap<>();
+		private boolean draining;
+
+		Subscriber(Consumer<Quote> listener) {
+			this.listener = listener;
+		}
+
+		void offer(Quote[] quotes) {
+			boolean start;
+			lock.lock();
+			try {
+				for(Quote quote : quotes) {
+					pending.remove(quote.getSymbolId()); // So that the symbol moves to the back of the line
+					pending.put(quote.getSymbolId(), quote);
+				}
+				start = !draining;
+				draining = true;
+			} finally {
+				lock.unlock();
+			}
+
+			if(start) {
+				try {
+					executor.execute(this::drain);
+				} catch(RejectedExecutionException e) {
+					lock.lock();
+					try {
+						draining = false;
+					} finally {
+						lock.unlock();
+					}
+				}
+			}
+		}
+
+		private void drain() {
+			while(true) {
+				Map<Long, Quote> batch;
+				lock.lock();
+				try {
+					if(pending.isEmpty()) {
+						draining = false;
+						return;
+					}
+					batch = pending;
+					pending = new LinkedHashMap<>();
+				} finally {
+					lock.unlock();
+				}
+
+				for(Quote quote : batch.values()) {
+					try {
+						listener.accept(quote);
+					} catch(RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,423 @@
+package com.jquestrade;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** Polls {@link Questrade#getQuote(int[])} for a watchlist, for accounts that can't {@link QuoteStream stream} quotes. Instead of polling every
+ * symbol at a fixed rate, each symbol is polled at its own interval:
+ * <ul>
+ * <li>The interval starts at the base interval times the symbol's {@link Priority} multiplier.</li>
+ * <li>Each time a symbol's quote comes back unchanged, its interval grows by half, up to {@value #MAX_BACKOFF} times its starting interval.
+ * As soon as the quote changes, the interval goes back to its starting value.</li>
+ * <li>Without a real-time data package, each quote retrieved uses up one of the market's daily snap quotes ({@link Market#getSnapQuotesLimit()}),
+ * and once they run out the quotes are delayed. So each market's remaining snap quotes are spread over the rest of the day, with
+ * higher priority symbols getting a bigger share.</li>
+ * </ul>
+ * Every few milliseconds, the symbols that are due are sent together in requests of up to {@value #MAX_IDS_PER_REQUEST} symbols.
+ * Listeners are called with every quote that comes back.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuoteSubscription quotes = new QuoteSubscription(q, Duration.ofSeconds(1), new SymbolCache(q));}<br>
+ * {@code quotes.addListener(quote -> ...);}<br>
+ * {@code quotes.subscribe(Priority.HIGH, 8049);}<br>
+ * {@code quotes.subscribe(Priority.LOW, watchlist);}<br>
+ * {@code quotes.start();}
+ */
+public class QuoteSubscription {
+
+	/** How often a symbol is polled, relative to the others. */
+	public enum Priority {
+		/** Polled at the base interval. */
+		HIGH(1),
+		/** Polled 4 times less often than {@code HIGH}. */
+		NORMAL(4),
+		/** Polled 16 times less often than {@code HIGH}. */
+		LOW(16);
+
+		private final int multiplier;
+
+		Priority(int multiplier) {
+			this.multiplier = multiplier;
+		}
+	}
+
+	/** The most that a quiet symbol's interval can grow, relative to its starting interval. */
+	public static final int MAX_BACKOFF = 8;
+
+	/** The most symbols to put in one request. */
+	public static final int MAX_IDS_PER_REQUEST = 100;
+
+	/** How often to check which symbols are due. */
+	private static final long TICK_MILLIS = 50;
+
+	/** The time zone in which the snap quote limits are assumed to reset, at midnight. */
+	private static final ZoneId MARKET_ZONE = ZoneId.of("America/Toronto");
+
+	private final Questrade questrade;
+	private final SymbolCache symbols;
+	private final long baseIntervalNanos;
+
+	private final List<Consumer<Quote>> listeners = new CopyOnWriteArrayList<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/* Guarded by lock. */
+	private final Map<Integer, Entry> entries = new HashMap<>();
+	private final Map<String, Budget> budgets = new HashMap<>();
+	private ScheduledFuture<?> ticker;
+
+	/** A subscribed symbol. */
+	private static final class Entry {
+		final int symbolId;
+		final Priority priority;
+		final Budget budget;
+		long intervalNanos;
+		long nextPoll;
+		boolean polling;
+		Quote last;
+
+		Entry(int symbolId, Priority priority, Budget budget, long intervalNanos) {
+			this.symbolId = symbolId;
+			this.priority = priority;
+			this.budget = budget;
+			this.intervalNanos = intervalNanos;
+		}
+
+		/** The share of the market's snap quotes that this symbol gets, relative to the other symbols of the market. */
+		double weight() {
+			return 1.0 / priority.multiplier;
+		}
+	}
+
+	/** The snap quotes of one market. */
+	private static final class Budget {
+		/** The daily limit, or {@code 0} if unlimited. */
+		int limit;
+		int used;
+		LocalDate day;
+		boolean delayed;
+		/** The sum of the weights of the market's subscribed symbols. */
+		double weights;
+	}
+
+	/** Creates a subscription that polls {@code HIGH} priority symbols every second, and looks up markets in a new {@link SymbolCache}.
+	 * @param questrade The activated {@code Questrade} object to request quotes with.
+	 */
+	public QuoteSubscription(Questrade questrade) {
+		this(questrade, Duration.ofSeconds(1), new SymbolCache(questrade));
+	}
+
+	/** Creates a subscription.
+	 * @param questrade The activated {@code Questrade} object to request quotes with.
+	 * @param baseInterval How often {@code HIGH} priority symbols are polled while they are changing.
+	 * @param symbols The cache to look up the listing exchange (market) of each symbol in.
+	 * @throws ArgumentException If the base interval isn't positive.
+	 */
+	public QuoteSubscription(Questrade questrade, Duration baseInterval, SymbolCache symbols) {
+		if(baseInterval.isNegative() || baseInterval.isZero()) {
+			throw new ArgumentException("baseInterval argument must be positive");
+		}
+
+		this.questrade = questrade;
+		this.symbols = symbols;
+		this.baseIntervalNanos = baseInterval.toNanos();
+	}
+
+	/** Adds a listener that is called with every quote retrieved, on the thread that received it.
+	 * @param listener The listener.
+	 * @return This {@code QuoteSubscription} object. Allows for chaining methods.
+	 */
+	public QuoteSubscription addListener(Consumer<Quote> listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/** Removes a listener.
+	 * @param listener The listener to remove.
+	 */
+	public void removeListener(Consumer<Quote> listener) {
+		listeners.remove(listener);
+	}
+
+	/** Retrieves the snap quote limit of each market and starts polling. Does nothing if already started.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public void start() throws RefreshTokenException {
+		Market[] markets = questrade.getMarkets();
+
+		lock.lock();
+		try {
+			if(markets != null) {
+				for(Market market : markets) {
+					budget(market.getName()).limit = market.getSnapQuotesLimit();
+				}
+			}
+
+			if(ticker == null) {
+				ticker = SharedScheduler.get().scheduleWithFixedDelay(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Stops polling. Requests in flight still complete and are delivered. */
+	public void stop() {
+		lock.lock();
+		try {
+			if(ticker != null) {
+				ticker.cancel(false);
+				ticker = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Subscribes to symbols, or changes the priority of symbols that are already subscribed to. Looks up the market of each new symbol.
+	 * @param priority How often to poll the symbols.
+	 * @param ids The internal identifiers of the symbols.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public void subscribe(Priority priority, int ...ids) throws RefreshTokenException {
+		SymbolInfo[] infos = symbols.getSymbols(ids, SymbolCache.Fields.REFERENCE);
+
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			for(int i = 0; i < ids.length; i++) {
+				remove(ids[i]);
+
+				String market = infos[i] != null ? infos[i].getListingExchange() : null;
+				Entry entry = new Entry(ids[i], priority, budget(market), baseIntervalNanos * priority.multiplier);
+				entry.nextPoll = now;
+				entry.budget.weights += entry.weight();
+				entries.put(ids[i], entry);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Unsubscribes from symbols.
+	 * @param ids The internal identifiers of the symbols.
+	 */
+	public void unsubscribe(int ...ids) {
+		lock.lock();
+		try {
+			for(int id : ids) {
+				remove(id);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns how many snap quotes of a market have been used today by this subscription.
+	 * @param market The name of the market. (Eg: "NASDAQ")
+	 * @return The number of snap quotes used.
+	 */
+	public int getSnapQuotesUsed(String market) {
+		lock.lock();
+		try {
+			Budget budget = budgets.get(market);
+			return budget != null ? budget.used : 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Returns whether a market has returned a delayed quote today, which means that its snap quotes ran out.
+	 * @param market The name of the market. (Eg: "NASDAQ")
+	 * @return {@code true} if the market's quotes are delayed.
+	 */
+	public boolean isDelayed(String market) {
+		lock.lock();
+		try {
+			Budget budget = budgets.get(market);
+			return budget != null && budget.delayed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Must be called while holding {@link #lock}. */
+	private void remove(int symbolId) {
+		Entry entry = entries.remove(symbolId);
+		if(entry != null) {
+			entry.budget.weights -= entry.weight();
+		}
+	}
+
+	/** Returns the budget of a market, creating it if needed. Symbols of unknown markets share an unlimited budget. Must be called while holding {@link #lock}. */
+	private Budget budget(String market) {
+		return budgets.computeIfAbsent(market != null ? market : "", name -> new Budget());
+	}
+
+	/** Sends one request per {@value #MAX_IDS_PER_REQUEST} symbols that are due, highest priority first. Runs on the shared scheduler, so it must not block. */
+	private void tick() {
+		List<int[]> batches = new ArrayList<>();
+
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			List<Entry> due = new ArrayList<>();
+			for(Entry entry : entries.values()) {
+				if(!entry.polling && now - entry.nextPoll >= 0 && hasBudget(entry.budget)) {
+					due.add(entry);
+				}
+			}
+			due.sort((a, b) -> Integer.compare(a.priority.multiplier, b.priority.multiplier));
+
+			for(int from = 0; from < due.size(); from += MAX_IDS_PER_REQUEST) {
+				List<Entry> batch = due.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, due.size()));
+				int[] ids = new int[batch.size()];
+				for(int i = 0; i < ids.length; i++) {
+					Entry entry = batch.get(i);
+					entry.polling = true;
+					entry.budget.used++; // Counted when sent, so that the next tick sees it
+					ids[i] = entry.symbolId;
+				}
+				batches.add(ids);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		for(int[] ids : batches) {
+			// An exception here would cancel the scheduled ticks, so the batch is given back instead
+			CompletableFuture<Quote[]> sent;
+			try {
+				sent = questrade.async().getQuote(ids);
+			} catch(RuntimeException e) {
+				e.printStackTrace();
+				failed(ids);
+				continue;
+			}
+
+			sent.whenComplete((quotes, e) -> {
+				if(e != null) {
+					failed(ids);
+				} else {
+					received(ids, quotes);
+				}
+			});
+		}
+	}
+
+	/** Gives back the snap quotes that a failed request was charged, and tries its symbols again after their current interval. */
+	private void failed(int[] ids) {
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			for(int id : ids) {
+				Entry entry = entries.get(id);
+				if(entry != null && entry.polling) {
+					entry.polling = false;
+					if(entry.budget.used > 0) {
+						entry.budget.used--;
+					}
+					entry.nextPoll = now + entry.intervalNanos;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Must be called while holding {@link #lock}. */
+	private boolean hasBudget(Budget budget) {
+		LocalDate today = LocalDate.now(MARKET_ZONE);
+		if(!today.equals(budget.day)) {
+			budget.day = today;
+			budget.used = 0;
+			budget.delayed = false;
+		}
+		return budget.limit <= 0 || budget.used < budget.limit;
+	}
+
+	/** Updates the polled symbols' intervals and delivers their quotes. A response without quotes only schedules the symbols' next polls. */
+	private void received(int[] ids, Quote[] quotes) {
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			if(quotes != null) {
+				for(Quote quote : quotes) {
+					Entry entry = quote != null ? entries.get((int) quote.getSymbolId()) : null;
+					if(entry == null) {
+						continue;
+					}
+
+					long start = baseIntervalNanos * entry.priority.multiplier;
+					entry.intervalNanos = QuoteDelta.changes(entry.last, quote) != 0 ? start
+							: Math.min(entry.intervalNanos + entry.intervalNanos / 2, start * MAX_BACKOFF);
+					entry.last = quote;
+					entry.budget.delayed |= quote.isDelayed();
+				}
+			}
+
+			for(int id : ids) {
+				Entry entry = entries.get(id);
+				if(entry != null && entry.polling) {
+					entry.polling = false;
+					entry.nextPoll = now + Math.max(entry.intervalNanos, pacedInterval(entry));
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if(quotes != null) {
+			for(Quote quote : quotes) {
+				if(quote == null) {
+					continue;
+				}
+				for(Consumer<Quote> listener : listeners) {
+					try {
+						listener.accept(quote);
+					} catch(RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+
+	/** Returns the interval that spreads the market's remaining snap quotes over the rest of the day, according to the symbol's share.
+	 * Must be called while holding {@link #lock}.
+	 */
+	private long pacedInterval(Entry entry) {
+		Budget budget = entry.budget;
+		if(budget.limit <= 0) {
+			return 0;
+		}
+
+		int remaining = budget.limit - budget.used;
+		ZonedDateTime now = ZonedDateTime.now(MARKET_ZONE);
+		long untilReset = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(MARKET_ZONE)).toNanos();
+		if(remaining <= 0) {
+			return untilReset;
+		}
+
+		// This symbol's share of the remaining quotes is weight / weights
+		return (long) (untilReset * (budget.weights / entry.weight()) / remaining);
+	}
+}
@@ -0,0 +1,188 @@
+package com.jquestrade;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/** Holds the latest {@link Quote} of each symbol, by symbol ID, for one writer and any number of readers. Readers never lock or wait:
+ * a read is a few array lookups on the current table, which the writer replaces with a bigger one when it fills up. Keys are kept as
+ * primitive {@code long}s, so looking up a quote doesn't box the symbol ID.<br><br>
+ *
+ * Only one thread may update the table at a time, such as a {@link QuoteStream} listener or a single polling thread. Updates from
+ * more than one thread must be serialized by the caller.<br><br>
+ *
+ * Example usage:<br>
+ * {@code QuoteTable table = new QuoteTable();}<br>
+ * {@code stream.addListener(table::put);}<br>
+ * {@code Quote quote = table.get(8049); // From any thread}
+ */
+public class QuoteTable {
+
+	private static final int MIN_CAPACITY = 16;
+
+	/** An open addressing hash table. Once a key is put in a slot it stays there, and removing it only clears its value. */
+	private static final class Slots {
+		final AtomicLongArray keys;
+		final AtomicReferenceArray<Quote> values;
+		final int mask;
+
+		Slots(int capacity) {
+			keys = new AtomicLongArray(capacity);
+			values = new AtomicReferenceArray<>(capacity);
+			mask = capacity - 1;
+		}
+
+		/** Returns the slot of a key, or the empty slot where it would go. The table always has empty slots. */
+		int slot(long key) {
+			int i = hash(key) & mask;
+			while(true) {
+				long k = keys.get(i);
+				if(k == key || k == EMPTY) {
+					return i;
+				}
+				i = (i + 1) & mask;
+			}
+		}
+	}
+
+	/** The key of an empty slot. The quote of symbol ID {@code 0}, if any, is kept in {@link #zero} instead. */
+	private static final long EMPTY = 0;
+
+	private volatile Slots slots = new Slots(MIN_CAPACITY);
+	private volatile Quote zero;
+
+	/* Only accessed by the writer. */
+	private int used;
+	private int size;
+
+	/** Returns the latest quote of a symbol.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return The latest quote, or {@code null} if there isn't one.
+	 */
+	public Quote get(long symbolId) {
+		if(symbolId == EMPTY) {
+			return zero;
+		}
+		Slots current = slots;
+		return current.values.get(current.slot(symbolId));
+	}
+
+	/** Returns whether the table has a quote for a symbol.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return {@code true} if there is a quote for the symbol.
+	 */
+	public boolean contains(long symbolId) {
+		return get(symbolId) != null;
+	}
+
+	/** Replaces the quote of the quote's symbol. Must only be called by the writer.
+	 * @param quote The new quote.
+	 */
+	public void put(Quote quote) {
+		long key = quote.getSymbolId();
+		if(key == EMPTY) {
+			if(zero == null) {
+				size++;
+			}
+			zero = quote;
+			return;
+		}
+
+		Slots current = slots;
+		int i = current.slot(key);
+
+		if(current.keys.get(i) == EMPTY) {
+			if((used + 1) * 2 > current.mask + 1) {
+				current = resize(current);
+				i = current.slot(key);
+			}
+			current.keys.set(i, key);
+			used++;
+		}
+
+		if(current.values.getAndSet(i, quote) == null) {
+			size++;
+		}
+	}
+
+	/** Replaces the quotes of the quotes' symbols. Must only be called by the writer.
+	 * @param quotes The new quotes.
+	 */
+	public void putAll(Quote[] quotes) {
+		for(Quote quote : quotes) {
+			put(quote);
+		}
+	}
+
+	/** Removes the quote of a symbol. Must only be called by the writer.
+	 * @param symbolId The internal identifier of the symbol.
+	 * @return The quote that was removed, or {@code null} if there wasn't one.
+	 */
+	public Quote remove(long symbolId) {
+		Quote previous;
+		if(symbolId == EMPTY) {
+			previous = zero;
+			zero = null;
+		} else {
+			Slots current = slots;
+			previous = current.values.getAndSet(current.slot(symbolId), null);
+		}
+		if(previous != null) {
+			size--;
+		}
+		return previous;
+	}
+
+	/** Returns the number of symbols with a quote. Only exact when called by the writer.
+	 * @return The number of quotes.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/** Calls an action with every quote in the table. Quotes put while iterating may or may not be seen.
+	 * @param action The action to call.
+	 */
+	public void forEach(Consumer<Quote> action) {
+		Quote quote = zero;
+		if(quote != null) {
+			action.accept(quote);
+		}
+
+		Slots current = slots;
+		for(int i = 0; i <= current.mask; i++) {
+			quote = current.values.get(i);
+			if(quote != null) {
+				action.accept(quote);
+			}
+		}
+	}
+
+	/** Copies the quotes into a new table, dropping the keys of removed quotes and growing it if it's more than a quarter full, and publishes it. */
+	private Slots resize(Slots current) {
+		int capacity = current.mask + 1;
+		while(size * 4 >= capacity) {
+			capacity *= 2;
+		}
+		capacity = Math.max(capacity, MIN_CAPACITY);
+
+		Slots bigger = new Slots(capacity);
+		used = 0;
+		for(int i = 0; i <= current.mask; i++) {
+			Quote quote = current.values.get(i);
+			if(quote != null) {
+				int j = bigger.slot(current.keys.get(i));
+				bigger.keys.set(j, current.keys.get(i));
+				bigger.values.set(j, quote);
+				used++;
+			}
+		}
+		slots = bigger;
+		return bigger;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
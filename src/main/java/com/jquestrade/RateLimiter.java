@@ -0,0 +1,148 @@
+package com.jquestrade;
+
+import java.net.http.HttpHeaders;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/** Paces the requests of a {@link Questrade} object so that they stay within Questrade's rate limits, instead of having them rejected.
+ * Account calls and market data calls are limited separately, each with a per-second and a per-hour limit. The per-second limit is enforced
+ * locally with a token bucket. The per-hour limit is tracked with the {@code X-RateLimit-Remaining} and {@code X-RateLimit-Reset} headers
+ * that come back with every response: once no requests remain, requests are held until the limit resets.
+ * @see <a href="https://www.questrade.com/api/documentation/rate-limiting">The Questrade API rate limiting documentation</a>
+ */
+final class RateLimiter {
+
+	/** The categories of calls that Questrade limits separately. */
+	enum Category {
+		/** Calls to {@code v1/accounts/*} and {@code v1/time}. */
+		ACCOUNT(30, 30000),
+		/** Calls to {@code v1/markets/*} and {@code v1/symbols/*}. */
+		MARKET_DATA(20, 15000);
+
+		private final int perSecond;
+		private final int perHour;
+
+		Category(int perSecond, int perHour) {
+			this.perSecond = perSecond;
+			this.perHour = perHour;
+		}
+
+		/** Returns the category of the given request, or {@code null} if it isn't rate limited (such as a request for an access token). */
+		static Category of(Request request) {
+			if(!request.isApiRequest()) {
+				return null;
+			}
+
+			String path = request.getPath();
+			return path.startsWith("v1/markets") || path.startsWith("v1/symbols") ? MARKET_DATA : ACCOUNT;
+		}
+	}
+
+	/** How long to hold requests after a rejection that didn't say when the limit resets. */
+	private static final long DEFAULT_RETRY_MILLIS = 1000;
+
+	private final Bucket[] buckets = new Bucket[Category.values().length];
+
+	RateLimiter() {
+		for(Category category : Category.values()) {
+			buckets[category.ordinal()] = new Bucket(category.perSecond);
+		}
+	}
+
+	/** Takes a permit for a request of the given category.
+	 * @param category The category of the request.
+	 * @return How long to wait before sending the request, in nanoseconds. Usually {@code 0}.
+	 */
+	long reserve(Category category) {
+		return buckets[category.ordinal()].reserve();
+	}
+
+	/** Updates the per-hour limit of the given category from the headers of a response.
+	 * @param category The category of the request that the response is for.
+	 * @param headers The response's headers.
+	 */
+	void update(Category category, HttpHeaders headers) {
+		OptionalLong remaining = header(headers, "X-RateLimit-Remaining");
+		if(remaining.isPresent()) {
+			buckets[category.ordinal()].update(remaining.getAsLong(), resetTime(headers));
+		}
+	}
+
+	/** Records that a request of the given category was rejected for exceeding the rate limit (status code 429).
+	 * @param category The category of the rejected request.
+	 * @param headers The rejection's headers.
+	 * @return How long to wait before retrying the request, in nanoseconds.
+	 */
+	long rejected(Category category, HttpHeaders headers) {
+		long resetAt = resetTime(headers);
+		return buckets[category.ordinal()].rejected(resetAt > 0 ? resetAt : System.currentTimeMillis() + DEFAULT_RETRY_MILLIS);
+	}
+
+	/** Returns when the per-hour limit resets according to the given headers, in milliseconds since the epoch, or {@code 0} if they don't say. */
+	private static long resetTime(HttpHeaders headers) {
+		// The header is a Unix timestamp in seconds
+		return header(headers, "X-RateLimit-Reset").orElse(0) * 1000;
+	}
+
+	private static OptionalLong header(HttpHeaders headers, String name) {
+		try {
+			return headers.firstValueAsLong(name);
+		} catch(NumberFormatException e) {
+			return OptionalLong.empty();
+		}
+	}
+
+	/** The limits of one category. The per-second limit is a token bucket whose balance can go negative: each request that finds it
+	 * empty waits for its own token to be refilled, so requests are spread out instead of all waking up at once.
+	 */
+	private static final class Bucket {
+		private final double perSecond;
+
+		private double tokens;
+		private long lastRefill = System.nanoTime();
+
+		/** The requests left in the current hour, or {@code Long.MAX_VALUE} if unknown. */
+		private long remaining = Long.MAX_VALUE;
+
+		/** When the current hour's limit resets, in milliseconds since the epoch. */
+		private long resetAt;
+
+		Bucket(double perSecond) {
+			this.perSecond = perSecond;
+			this.tokens = perSecond;
+		}
+
+		synchronized long reserve() {
+			long now = System.nanoTime();
+			tokens = Math.min(perSecond, tokens + (now - lastRefill) * perSecond / TimeUnit.SECONDS.toNanos(1));
+			lastRefill = now;
+			tokens -= 1;
+
+			long wait = tokens >= 0 ? 0 : (long) (-tokens / perSecond * TimeUnit.SECONDS.toNanos(1));
+
+			long nowMillis = System.currentTimeMillis();
+			if(nowMillis >= resetAt) {
+				remaining = Long.MAX_VALUE; // A new hour has started, the next response will tell how much is left
+			} else if(remaining <= 0) {
+				wait = Math.max(wait, TimeUnit.MILLISECONDS.toNanos(resetAt - nowMillis));
+			}
+			remaining--;
+
+			return wait;
+		}
+
+		synchronized void update(long remaining, long resetAt) {
+			// Responses can arrive out of order, so a count from an earlier response mustn't undo the requests made since
+			if(resetAt != this.resetAt || remaining < this.remaining) {
+				this.remaining = remaining;
+				this.resetAt = resetAt;
+			}
+		}
+
+		synchronized long rejected(long resetAt) {
+			this.remaining = 0;
+			this.resetAt = resetAt;
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(resetAt - System.currentTimeMillis(), 0));
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package com.jquestrade;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
 
 /** Represents an HTTPS request. */
 class Request {
@@ -36,10 +38,10 @@ class Request {
 	
 	void addParameter(String key, String[] values) {
 		path += ((parameterCount == 0) ? "?" : "&")
-			+ key + "=" + values[0];
+			+ key + "=" + encode(values[0]);
 		
 		for(int i = 1; i < values.length; i++) {
-			path += "," + values[i];
+			path += "," + encode(values[i]);
 		}
 		
 		parameterCount++;
@@ -58,10 +60,10 @@ class Request {
 	
 	void addParameter(String key, String value, String ...values) {
 		path += ((parameterCount == 0) ? "?" : "&")
-			+ key + "=" + value;
+			+ key + "=" + encode(value);
 		
 		for(int i = 0; i < values.length; i++) {
-			path += "," + values[i];
+			path += "," + encode(values[i]);
 		}
 		
 		parameterCount++;
@@ -90,7 +92,26 @@ class Request {
 		this.accessToken = accessToken;
 	}
 	
-	HttpURLConnection getConnection() throws IOException {
+	String getAccessToken() {
+		return accessToken;
+	}
+	
+	/** Returns the path of this request, including its parameters, without the API server. */
+	String getPath() {
+		return path;
+	}
+	
+	/** Returns whether this request is for the API server, as opposed to the login server. */
+	boolean isApiRequest() {
+		return apiServer != null;
+	}
+	
+	/** Percent-encodes a parameter value, so that characters such as the {@code +} in a time zone offset survive the trip. */
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+	
+	HttpRequest toHttpRequest() {
 		String URL;
 		
 		if(apiServer != null) {
@@ -99,21 +120,19 @@ class Request {
 			URL = path;
 		}
 		
-		HttpURLConnection connection = 
-				(HttpURLConnection) new URL(URL).openConnection();
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(URL));
 		
 		if (accessToken != null) {
-            connection.setRequestProperty("Authorization", "Bearer " + accessToken);
-        }
+			builder.header("Authorization", "Bearer " + accessToken);
+		}
 		
 		if(contentType != null) {
-			connection.setDoOutput(true);
-			connection.setRequestProperty("Content-Type", contentType);
+			builder.header("Content-Type", contentType);
 		}
 		
-		connection.setRequestMethod(requestMethod);
+		builder.method(requestMethod, BodyPublishers.noBody());
 			
-		return connection;
+		return builder.build();
 	}
 	
 	@Override
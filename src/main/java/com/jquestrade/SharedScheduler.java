@@ -0,0 +1,33 @@
+package com.jquestrade;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/** Holds the one scheduler thread that is shared by everything in the library that needs to run something later, such as renewing
+ * access tokens before they expire. Tasks run on it must be short and must not block, since they all share a single daemon thread.
+ */
+final class SharedScheduler {
+	private SharedScheduler() {}
+
+	private static final ScheduledExecutorService SCHEDULER = create();
+
+	private static ScheduledExecutorService create() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+			thread.setName("jquestrade-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Cancelled tasks (such as a refresh that was made unnecessary) shouldn't linger in the queue until their delay is up
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+	/** Returns the shared scheduler.
+	 * @return The shared scheduler.
+	 */
+	static ScheduledExecutorService get() {
+		return SCHEDULER;
+	}
+}
@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents a symbol/ticker. For more information on the ticker, use
  * {@link Questrade#getSymbolInfo(int, int...)} to get a {@link SymbolInfo},
  * which is this class + more info.
@@ -79,5 +86,52 @@ public class Symbol {
 		return currency;
 	}
 	
-	
+	/** Reads and writes {@code Symbol} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<Symbol> {
+		
+		@Override
+		public Symbol read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			Symbol symbol = new Symbol();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "symbol": symbol.symbol = Codec.nextString(in); break;
+					case "symbolId": symbol.symbolId = Codec.nextInt(in); break;
+					case "description": symbol.description = Codec.nextString(in); break;
+					case "securityType": symbol.securityType = Codec.nextString(in); break;
+					case "listingExchange": symbol.listingExchange = Codec.nextString(in); break;
+					case "isTradable": symbol.isTradable = Codec.nextBoolean(in); break;
+					case "isQuotable": symbol.isQuotable = Codec.nextBoolean(in); break;
+					case "currency": symbol.currency = Codec.nextString(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return symbol;
+		}
+		
+		@Override
+		public void write(JsonWriter out, Symbol symbol) throws IOException {
+			if(symbol == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("symbol").value(symbol.symbol);
+			out.name("symbolId").value(symbol.symbolId);
+			out.name("description").value(symbol.description);
+			out.name("securityType").value(symbol.securityType);
+			out.name("listingExchange").value(symbol.listingExchange);
+			out.name("isTradable").value(symbol.isTradable);
+			out.name("isQuotable").value(symbol.isQuotable);
+			out.name("currency").value(symbol.currency);
+			out.endObject();
+		}
+	}
 }
@@ -0,0 +1,319 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.jquestrade.exceptions.ArgumentException;
+import com.jquestrade.exceptions.RefreshTokenException;
+import com.jquestrade.exceptions.StatusCodeException;
+
+/** A cache of {@link SymbolInfo} objects, indexed by both symbol ID and symbol name, that can be saved to a file so that it survives restarts.
+ * Symbols that aren't cached, or whose cached data is too old for what it's needed for, are retrieved in as few requests as possible
+ * (up to {@link #BATCH_SIZE} symbols per request).<br><br>
+ *
+ * How old cached data can be depends on which fields are going to be read (see {@link Fields}). Reference data, such as the description
+ * and listing exchange, rarely changes and is reused for the reference time-to-live. Daily fields, such as the previous day's close price,
+ * are only reused on the same day (in the market's time zone) that they were retrieved.<br><br>
+ *
+ * Example usage:<br>
+ * {@code SymbolCache symbols = new SymbolCache(q, Paths.get("symbols.json"), Duration.ofDays(7));}<br>
+ * {@code int id = symbols.getSymbolId("AAPL"); // Only the first run makes a request}<br>
+ * {@code symbols.save();}
+ */
+public class SymbolCache {
+
+	/** The groups of {@link SymbolInfo} fields, by how often they change. */
+	public enum Fields {
+		/** The fields that rarely change: symbol, symbolId, description, securityType, listingExchange, currency, minTicks, tradeUnit,
+		 * the option fields and the industry fields. */
+		REFERENCE,
+		/** All fields, including the ones that change daily: prevDayClosePrice, highPrice52, lowPrice52, the average volumes, eps, pe,
+		 * dividend, yield, marketCap, and so on. */
+		DAILY;
+	}
+
+	/** The most symbols that are requested at once. */
+	public static final int BATCH_SIZE = 100;
+
+	/** The reference time-to-live used by {@link #SymbolCache(Questrade)}. */
+	public static final Duration DEFAULT_REFERENCE_TTL = Duration.ofDays(7);
+
+	/** The time zone in which a new day starts for the daily fields. */
+	private static final ZoneId MARKET_ZONE = ZoneId.of("America/Toronto");
+
+	private final Questrade questrade;
+	private final Path file;
+	private final long referenceTtlMillis;
+
+	private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+	private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+	/** A cached symbol. */
+	private static final class Entry {
+		final SymbolInfo info;
+		/** When the symbol was retrieved, in milliseconds since the epoch. */
+		final long retrievedAt;
+
+		Entry(SymbolInfo info, long retrievedAt) {
+			this.info = info;
+			this.retrievedAt = retrievedAt;
+		}
+	}
+
+	/** Creates an in-memory cache that reuses reference data for {@link #DEFAULT_REFERENCE_TTL}.
+	 * @param questrade The activated {@code Questrade} object to retrieve symbols with.
+	 */
+	public SymbolCache(Questrade questrade) {
+		this.questrade = questrade;
+		this.file = null;
+		this.referenceTtlMillis = DEFAULT_REFERENCE_TTL.toMillis();
+	}
+
+	/** Creates a cache that is saved to the given file, loading it if it already exists.
+	 * @param questrade The activated {@code Questrade} object to retrieve symbols with.
+	 * @param file The file that {@link #save()} writes the cache to.
+	 * @param referenceTtl How long reference data can be reused for after it is retrieved.
+	 * @throws IOException If the file exists but can't be read.
+	 * @throws ArgumentException If the reference time-to-live is negative.
+	 */
+	public SymbolCache(Questrade questrade, Path file, Duration referenceTtl) throws IOException {
+		if(referenceTtl.isNegative()) {
+			throw new ArgumentException("referenceTtl argument cannot be negative");
+		}
+
+		this.questrade = questrade;
+		this.file = file;
+		this.referenceTtlMillis = referenceTtl.toMillis();
+
+		if(Files.exists(file)) {
+			load();
+		}
+	}
+
+	/** Returns the information for a symbol.
+	 * @param id The internal unique identifier for the symbol.
+	 * @param fields Which fields are going to be read, which decides how old the cached data can be.
+	 * @return The symbol's information, or {@code null} if the Questrade API doesn't know the symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public SymbolInfo getSymbol(int id, Fields fields) throws RefreshTokenException {
+		return getSymbols(new int[] {id}, fields)[0];
+	}
+
+	/** Returns the information for a symbol.
+	 * @param name The name of the symbol. (Eg: "MSFT")
+	 * @param fields Which fields are going to be read, which decides how old the cached data can be.
+	 * @return The symbol's information, or {@code null} if the Questrade API doesn't know the symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public SymbolInfo getSymbol(String name, Fields fields) throws RefreshTokenException {
+		return getSymbols(new String[] {name}, fields)[0];
+	}
+
+	/** Returns the internal unique identifier of a symbol. Symbol IDs never change, so this only makes a request the first time a symbol is seen.
+	 * @param name The name of the symbol. (Eg: "MSFT")
+	 * @return The symbol's ID.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws ArgumentException If the Questrade API doesn't know the symbol.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public int getSymbolId(String name) throws RefreshTokenException {
+		Integer id = idsByName.get(key(name));
+		if(id != null) {
+			return id;
+		}
+
+		SymbolInfo info = getSymbol(name, Fields.REFERENCE);
+		if(info == null) {
+			throw new ArgumentException("Unknown symbol: " + name);
+		}
+		return info.getSymbolId();
+	}
+
+	/** Returns the information for several symbols, retrieving the ones that aren't usable from the cache in as few requests as possible.
+	 * @param ids The internal unique identifiers for the symbols.
+	 * @param fields Which fields are going to be read, which decides how old the cached data can be.
+	 * @return The symbols' information, in the same order as the IDs. An index is {@code null} if the Questrade API doesn't know that symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public SymbolInfo[] getSymbols(int[] ids, Fields fields) throws RefreshTokenException {
+		long now = System.currentTimeMillis();
+
+		List<Integer> missing = new ArrayList<>();
+		for(int id : ids) {
+			if(!isUsable(byId.get(id), fields, now)) {
+				missing.add(id);
+			}
+		}
+
+		for(int from = 0; from < missing.size(); from += BATCH_SIZE) {
+			List<Integer> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+			put(questrade.getSymbol(batch.stream().mapToInt(Integer::intValue).toArray()), now);
+		}
+
+		SymbolInfo[] infos = new SymbolInfo[ids.length];
+		for(int i = 0; i < ids.length; i++) {
+			Entry entry = byId.get(ids[i]);
+			infos[i] = entry != null ? entry.info : null;
+		}
+		return infos;
+	}
+
+	/** Returns the information for several symbols, retrieving the ones that aren't usable from the cache in as few requests as possible.
+	 * @param names The names of the symbols. (Eg: "MSFT", "AAPL")
+	 * @param fields Which fields are going to be read, which decides how old the cached data can be.
+	 * @return The symbols' information, in the same order as the names. An index is {@code null} if the Questrade API doesn't know that symbol.
+	 * @throws RefreshTokenException If the refresh token is invalid.
+	 * @throws StatusCodeException If an error occurs when contacting the Questrade API.
+	 */
+	public SymbolInfo[] getSymbols(String[] names, Fields fields) throws RefreshTokenException {
+		long now = System.currentTimeMillis();
+
+		List<String> missing = new ArrayList<>();
+		for(String name : names) {
+			if(!isUsable(byName(name), fields, now)) {
+				missing.add(name);
+			}
+		}
+
+		for(int from = 0; from < missing.size(); from += BATCH_SIZE) {
+			List<String> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+			put(questrade.getSymbol(batch.toArray(new String[batch.size()])), now);
+		}
+
+		SymbolInfo[] infos = new SymbolInfo[names.length];
+		for(int i = 0; i < names.length; i++) {
+			Entry entry = byName(names[i]);
+			infos[i] = entry != null ? entry.info : null;
+		}
+		return infos;
+	}
+
+	/** Returns whether a cached entry can be used for the given fields. */
+	private boolean isUsable(Entry entry, Fields fields, long now) {
+		if(entry == null || now - entry.retrievedAt >= referenceTtlMillis) {
+			return false;
+		}
+
+		if(fields == Fields.DAILY) {
+			long startOfDay = LocalDate.now(MARKET_ZONE).atStartOfDay(MARKET_ZONE).toInstant().toEpochMilli();
+			return entry.retrievedAt >= startOfDay;
+		}
+		return true;
+	}
+
+	private Entry byName(String name) {
+		Integer id = idsByName.get(key(name));
+		return id != null ? byId.get(id) : null;
+	}
+
+	private void put(SymbolInfo[] infos, long retrievedAt) {
+		if(infos == null) {
+			return;
+		}
+
+		for(SymbolInfo info : infos) {
+			byId.put(info.getSymbolId(), new Entry(info, retrievedAt));
+			idsByName.put(key(info.getSymbol()), info.getSymbolId());
+		}
+	}
+
+	/** Symbol names are looked up case-insensitively. */
+	private static String key(String name) {
+		return name.toUpperCase(Locale.ROOT);
+	}
+
+	/** Removes all symbols from the cache. The file is left alone until the next {@link #save()}. */
+	public void clear() {
+		byId.clear();
+		idsByName.clear();
+	}
+
+	/** Returns the number of symbols in the cache.
+	 * @return The number of symbols in the cache.
+	 */
+	public int size() {
+		return byId.size();
+	}
+
+	/** Writes the cache to its file. The file is replaced in one step, so a crash during the save leaves the previous version intact.
+	 * @throws IOException If the file can't be written.
+	 * @throws IllegalStateException If the cache was created without a file.
+	 */
+	public void save() throws IOException {
+		if(file == null) {
+			throw new IllegalStateException("This cache was created without a file");
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			JsonWriter out = new JsonWriter(writer);
+			out.beginObject();
+			out.name("symbols").beginArray();
+			for(Entry entry : byId.values()) {
+				out.beginObject();
+				out.name("retrievedAt").value(entry.retrievedAt);
+				out.name("info");
+				Codec.SYMBOL_INFO.write(out, entry.info);
+				out.endObject();
+			}
+			out.endArray();
+			out.endObject();
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/** Reads the cache's file. Its entries keep the time they were originally retrieved at. */
+	private void load() throws IOException {
+		try(Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			JsonReader in = new JsonReader(reader);
+			in.beginObject();
+			while(in.hasNext()) {
+				if(!in.nextName().equals("symbols")) {
+					in.skipValue();
+					continue;
+				}
+
+				in.beginArray();
+				while(in.hasNext()) {
+					long retrievedAt = 0;
+					SymbolInfo info = null;
+
+					in.beginObject();
+					while(in.hasNext()) {
+						switch(in.nextName()) {
+							case "retrievedAt": retrievedAt = in.nextLong(); break;
+							case "info": info = Codec.SYMBOL_INFO.read(in); break;
+							default: in.skipValue();
+						}
+					}
+					in.endObject();
+
+					if(info != null) {
+						put(new SymbolInfo[] {info}, retrievedAt);
+					}
+				}
+				in.endArray();
+			}
+			in.endObject();
+		}
+	}
+}
@@ -1,5 +1,12 @@
 package com.jquestrade;
 
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /** Represents information about a symbol/ticker */
 public class SymbolInfo {
 	private SymbolInfo() {}
@@ -317,4 +324,144 @@ public class SymbolInfo {
 		return industrySubgroup;
 	}
 	
-}
\ No newline at end of file
+	/** Reads and writes {@code SymbolInfo} objects without reflection. Registered in {@link Codec}. */
+	static final class Adapter extends TypeAdapter<SymbolInfo> {
+		
+		@Override
+		public SymbolInfo read(JsonReader in) throws IOException {
+			if(in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			
+			SymbolInfo info = new SymbolInfo();
+			in.beginObject();
+			while(in.hasNext()) {
+				switch(in.nextName()) {
+					case "symbol": info.symbol = Codec.nextString(in); break;
+					case "symbolId": info.symbolId = Codec.nextInt(in); break;
+					case "prevDayClosePrice": info.prevDayClosePrice = Codec.nextDouble(in); break;
+					case "highPrice52": info.highPrice52 = Codec.nextDouble(in); break;
+					case "lowPrice52": info.lowPrice52 = Codec.nextDouble(in); break;
+					case "averageVol3Months": info.averageVol3Months = Codec.nextLong(in); break;
+					case "averageVol20Days": info.averageVol20Days = Codec.nextLong(in); break;
+					case "outstandingShares": info.outstandingShares = Codec.nextLong(in); break;
+					case "eps": info.eps = Codec.nextDouble(in); break;
+					case "pe": info.pe = Codec.nextDouble(in); break;
+					case "dividend": info.dividend = Codec.nextDouble(in); break;
+					case "yield": info.yield = Codec.nextDouble(in); break;
+					case "exDate": info.exDate = Codec.nextString(in); break;
+					case "marketCap": info.marketCap = Codec.nextLong(in); break;
+					case "tradeUnit": info.tradeUnit = Codec.nextInt(in); break;
+					case "optionType": info.optionType = Codec.nextString(in); break;
+					case "optionDurationType": info.optionDurationType = Codec.nextString(in); break;
+					case "optionRoot": info.optionRoot = Codec.nextString(in); break;
+					case "optionContractDeliverables": info.optionContractDeliverables = Codec.nextObject(in); break;
+					case "optionExerciseType": info.optionExerciseType = Codec.nextString(in); break;
+					case "listingExchange": info.listingExchange = Codec.nextString(in); break;
+					case "description": info.description = Codec.nextString(in); break;
+					case "securityType": info.securityType = Codec.nextString(in); break;
+					case "optionExpiryDate": info.optionExpiryDate = Codec.nextString(in); break;
+					case "dividendDate": info.dividendDate = Codec.nextString(in); break;
+					case "optionStrikePrice": info.optionStrikePrice = Codec.nextString(in); break;
+					case "isTradable": info.isTradable = Codec.nextBoolean(in); break;
+					case "isQuotable": info.isQuotable = Codec.nextBoolean(in); break;
+					case "hasOptions": info.hasOptions = Codec.nextBoolean(in); break;
+					case "currency": info.currency = Codec.nextString(in); break;
+					case "minTicks": info.minTicks = Codec.nextArray(in, minTickAdapter(info), MinTick[]::new); break;
+					case "industrySector": info.industrySector = Codec.nextString(in); break;
+					case "industryGroup": info.industryGroup = Codec.nextString(in); break;
+					case "industrySubgroup": info.industrySubgroup = Codec.nextString(in); break;
+					default: in.skipValue();
+				}
+			}
+			in.endObject();
+			return info;
+		}
+		
+		@Override
+		public void write(JsonWriter out, SymbolInfo info) throws IOException {
+			if(info == null) {
+				out.nullValue();
+				return;
+			}
+			
+			out.beginObject();
+			out.name("symbol").value(info.symbol);
+			out.name("symbolId").value(info.symbolId);
+			out.name("prevDayClosePrice").value(info.prevDayClosePrice);
+			out.name("highPrice52").value(info.highPrice52);
+			out.name("lowPrice52").value(info.lowPrice52);
+			out.name("averageVol3Months").value(info.averageVol3Months);
+			out.name("averageVol20Days").value(info.averageVol20Days);
+			out.name("outstandingShares").value(info.outstandingShares);
+			out.name("eps").value(info.eps);
+			out.name("pe").value(info.pe);
+			out.name("dividend").value(info.dividend);
+			out.name("yield").value(info.yield);
+			out.name("exDate").value(info.exDate);
+			out.name("marketCap").value(info.marketCap);
+			out.name("tradeUnit").value(info.tradeUnit);
+			out.name("optionType").value(info.optionType);
+			out.name("optionDurationType").value(info.optionDurationType);
+			out.name("optionRoot").value(info.optionRoot);
+			out.name("optionContractDeliverables");
+			Codec.writeObject(out, info.optionContractDeliverables);
+			out.name("optionExerciseType").value(info.optionExerciseType);
+			out.name("listingExchange").value(info.listingExchange);
+			out.name("description").value(info.description);
+			out.name("securityType").value(info.securityType);
+			out.name("optionExpiryDate").value(info.optionExpiryDate);
+			out.name("dividendDate").value(info.dividendDate);
+			out.name("optionStrikePrice").value(info.optionStrikePrice);
+			out.name("isTradable").value(info.isTradable);
+			out.name("isQuotable").value(info.isQuotable);
+			out.name("hasOptions").value(info.hasOptions);
+			out.name("currency").value(info.currency);
+			out.name("minTicks");
+			Codec.writeArray(out, info.minTicks, minTickAdapter(info));
+			out.name("industrySector").value(info.industrySector);
+			out.name("industryGroup").value(info.industryGroup);
+			out.name("industrySubgroup").value(info.industrySubgroup);
+			out.endObject();
+		}
+		
+		/** Returns an adapter for the min ticks of the given symbol. A {@code MinTick} is an inner class, so it needs its enclosing {@code SymbolInfo}. */
+		private static TypeAdapter<MinTick> minTickAdapter(SymbolInfo info) {
+			return new TypeAdapter<MinTick>() {
+				@Override
+				public MinTick read(JsonReader in) throws IOException {
+					if(in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						return null;
+					}
+					
+					MinTick minTick = info.new MinTick();
+					in.beginObject();
+					while(in.hasNext()) {
+						switch(in.nextName()) {
+							case "pivot": minTick.pivot = Codec.nextDouble(in); break;
+							case "minTick": minTick.minTick = Codec.nextDouble(in); break;
+							default: in.skipValue();
+						}
+					}
+					in.endObject();
+					return minTick;
+				}
+				
+				@Override
+				public void write(JsonWriter out, MinTick minTick) throws IOException {
+					if(minTick == null) {
+						out.nullValue();
+						return;
+					}
+					
+					out.beginObject();
+					out.name("pivot").value(minTick.pivot);
+					out.name("minTick").value(minTick.minTick);
+					out.endObject();
+				}
+			};
+		}
+	}
+}
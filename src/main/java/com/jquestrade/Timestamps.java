@@ -0,0 +1,211 @@
+package com.jquestrade;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/** Parses and formats the ISO 8601 timestamps used by the Questrade API (Eg: "2014-10-01T00:00:00.000000-04:00") without creating
+ * any objects besides the formatted strings. Timestamps are read by their fixed character positions, and dates are converted to
+ * and from epoch days with integer arithmetic instead of through {@code java.time}. Timestamps in any other shape are handed to
+ * {@link OffsetDateTime#parse(CharSequence)}, so nothing that {@code java.time} accepts is rejected.
+ */
+public final class Timestamps {
+	private Timestamps() {}
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	/** Returns the instant that a timestamp refers to.
+	 * @param timestamp A timestamp in the format used by the Questrade API, with or without a fraction of a second.
+	 * @return The instant, in milliseconds since the epoch. A fraction finer than milliseconds is truncated.
+	 * @throws DateTimeParseException If the timestamp is not a valid ISO 8601 date and time with an offset.
+	 */
+	public static long toEpochMilli(CharSequence timestamp) {
+		int length = timestamp.length();
+		if(length < 20 || !isShape(timestamp)) {
+			return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+		}
+
+		int year = digits(timestamp, 0, 4);
+		int month = digits(timestamp, 5, 2);
+		int day = digits(timestamp, 8, 2);
+		int hour = digits(timestamp, 11, 2);
+		int minute = digits(timestamp, 14, 2);
+		int second = digits(timestamp, 17, 2);
+
+		int position = 19;
+		int millis = 0;
+		if(timestamp.charAt(position) == '.') {
+			position++;
+			int scale = 100;
+			while(position < length && isDigit(timestamp.charAt(position))) {
+				millis += (timestamp.charAt(position) - '0') * scale;
+				scale /= 10;
+				position++;
+			}
+		}
+
+		int offset = offset(timestamp, position);
+		if(offset == Integer.MIN_VALUE || (year | hour | minute | second) < 0 || hour > 23 || minute > 59 || second > 59
+				|| month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+			// Let java.time parse it, or explain why it can't be parsed
+			return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+		}
+
+		long seconds = epochDay(year, month, day) * 86_400L + hour * 3600 + minute * 60 + second - offset;
+		return seconds * 1000 + millis;
+	}
+
+	/** Returns the UTC offset of a timestamp.
+	 * @param timestamp A timestamp in the format used by the Questrade API.
+	 * @return The offset, in seconds.
+	 * @throws DateTimeParseException If the timestamp is not a valid ISO 8601 date and time with an offset.
+	 */
+	public static int offsetSeconds(CharSequence timestamp) {
+		int position = 19;
+		if(timestamp.length() > position && timestamp.charAt(position) == '.') {
+			position++;
+			while(position < timestamp.length() && isDigit(timestamp.charAt(position))) {
+				position++;
+			}
+		}
+
+		int offset = timestamp.length() >= 20 && isShape(timestamp) ? offset(timestamp, position) : Integer.MIN_VALUE;
+		return offset != Integer.MIN_VALUE ? offset : OffsetDateTime.parse(timestamp).getOffset().getTotalSeconds();
+	}
+
+	/** Formats an instant in the format returned by the Questrade API, with microseconds. (Eg: "2014-10-01T00:00:00.000000-04:00")
+	 * @param epochMilli The instant, in milliseconds since the epoch.
+	 * @param offsetSeconds The UTC offset to show the time in, in seconds.
+	 * @return The formatted timestamp.
+	 */
+	public static String format(long epochMilli, int offsetSeconds) {
+		return format(epochMilli, offsetSeconds, true);
+	}
+
+	/** Formats a time in the format that the Questrade API expects in requests, to the second. (Eg: "2014-10-01T00:00:00-04:00") */
+	static String formatRequest(ZonedDateTime time) {
+		return format(time.toEpochSecond() * 1000, time.getOffset().getTotalSeconds(), false);
+	}
+
+	private static String format(long epochMilli, int offsetSeconds, boolean micros) {
+		long local = epochMilli + offsetSeconds * 1000L;
+		long epochDay = Math.floorDiv(local, MILLIS_PER_DAY);
+		long millisOfDay = Math.floorMod(local, MILLIS_PER_DAY);
+
+		// Days to civil date, see http://howardhinnant.github.io/date_algorithms.html
+		long z = epochDay + 719_468;
+		long era = Math.floorDiv(z, 146_097);
+		long dayOfEra = z - era * 146_097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+		int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+		if(year < 0 || year > 9999) {
+			return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.ofTotalSeconds(offsetSeconds)).toString();
+		}
+
+		char[] chars = new char[micros ? 32 : 25];
+		int position = 0;
+		position = put(chars, position, (int) year, 4);
+		chars[position++] = '-';
+		position = put(chars, position, month, 2);
+		chars[position++] = '-';
+		position = put(chars, position, day, 2);
+		chars[position++] = 'T';
+		position = put(chars, position, (int) (millisOfDay / 3_600_000), 2);
+		chars[position++] = ':';
+		position = put(chars, position, (int) (millisOfDay / 60_000 % 60), 2);
+		chars[position++] = ':';
+		position = put(chars, position, (int) (millisOfDay / 1000 % 60), 2);
+		if(micros) {
+			chars[position++] = '.';
+			position = put(chars, position, (int) (millisOfDay % 1000), 3);
+			position = put(chars, position, 0, 3);
+		}
+
+		if(offsetSeconds == 0) {
+			chars[position++] = 'Z';
+		} else {
+			int absolute = Math.abs(offsetSeconds);
+			chars[position++] = offsetSeconds < 0 ? '-' : '+';
+			position = put(chars, position, absolute / 3600, 2);
+			chars[position++] = ':';
+			position = put(chars, position, absolute / 60 % 60, 2);
+		}
+		return new String(chars, 0, position);
+	}
+
+	/** Returns whether the date and time part has its separators where they belong. */
+	private static boolean isShape(CharSequence timestamp) {
+		return timestamp.charAt(4) == '-' && timestamp.charAt(7) == '-' && timestamp.charAt(10) == 'T'
+				&& timestamp.charAt(13) == ':' && timestamp.charAt(16) == ':';
+	}
+
+	/** Returns the offset that starts at the given position and ends the timestamp, in seconds, or {@code Integer.MIN_VALUE} if there isn't one. */
+	private static int offset(CharSequence timestamp, int position) {
+		int length = timestamp.length();
+		if(position == length - 1 && timestamp.charAt(position) == 'Z') {
+			return 0;
+		} else if(position != length - 6 || timestamp.charAt(position + 3) != ':') {
+			return Integer.MIN_VALUE;
+		}
+
+		char sign = timestamp.charAt(position);
+		int hours = digits(timestamp, position + 1, 2);
+		int minutes = digits(timestamp, position + 4, 2);
+		if((sign != '+' && sign != '-') || hours < 0 || minutes < 0) {
+			return Integer.MIN_VALUE;
+		}
+
+		int offset = hours * 3600 + minutes * 60;
+		return sign == '-' ? -offset : offset;
+	}
+
+	/** Returns the number that the given digits make up, or a negative number if any of them isn't a digit. */
+	private static int digits(CharSequence timestamp, int start, int count) {
+		int value = 0;
+		for(int i = start; i < start + count; i++) {
+			char c = timestamp.charAt(i);
+			if(!isDigit(c)) {
+				return Integer.MIN_VALUE;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/** Civil date to days since the epoch, see http://howardhinnant.github.io/date_algorithms.html */
+	private static long epochDay(int year, int month, int day) {
+		year -= month <= 2 ? 1 : 0;
+		long era = Math.floorDiv(year, 400);
+		long yearOfEra = year - era * 400;
+		long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146_097 + dayOfEra - 719_468;
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch(month) {
+			case 2: return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+			case 4: case 6: case 9: case 11: return 30;
+			default: return 31;
+		}
+	}
+
+	private static int put(char[] chars, int position, int value, int width) {
+		for(int i = position + width - 1; i >= position; i--) {
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return position + width;
+	}
+}
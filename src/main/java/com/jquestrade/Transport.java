@@ -0,0 +1,30 @@
+package com.jquestrade;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/** Represents the layer that sends a {@link Questrade} object's HTTP requests to the Questrade API.
+ * The default transport is {@link HttpClientTransport#getShared()}, which keeps its connections to the API server alive
+ * and is shared by all {@code Questrade} objects in the JVM. A different transport can be set using
+ * {@link Questrade#setTransport(Transport)}.
+ */
+public interface Transport {
+
+	/** Sends the given request and blocks until the response status and headers have been received.
+	 * @param request The request to send.
+	 * @return The response. Its body must be read fully or closed so that the underlying connection can be reused.
+	 * @throws IOException If an I/O error occurs when sending or receiving.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting for the response.
+	 */
+	HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException;
+	
+	/** Sends the given request without blocking the calling thread. Used by {@link QuestradeAsync}.
+	 * @param request The request to send.
+	 * @return A future that completes with the response once its status and headers have been received, or completes exceptionally with
+	 * an {@link IOException}. Its body must be read fully or closed so that the underlying connection can be reused.
+	 */
+	CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request);
+}
@@ -0,0 +1,50 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+/** The Average True Range, a measure of volatility, using Wilder's smoothing. The true range of a candle is the largest of its high minus
+ * its low, and the distances from the previous close to its high and to its low. The first value is the simple average of the
+ * first {@code period} true ranges.
+ * @see <a href="https://www.investopedia.com/terms/a/atr.asp">The definition of the ATR on investopedia.com</a>
+ */
+public class ATR extends Indicator {
+
+	private double previousClose;
+	private double value;
+
+	/** Creates an Average True Range.
+	 * @param period The number of true ranges to average. 14 is the usual period.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	public ATR(int period) {
+		super(period);
+	}
+
+	@Override
+	public void update(double high, double low, double close) {
+		double trueRange = high - low;
+		if(count > 0) {
+			trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+		}
+		previousClose = close;
+		count++;
+
+		if(count <= period) {
+			value += trueRange / period;
+		} else {
+			value = (value * (period - 1) + trueRange) / period;
+		}
+	}
+
+	@Override
+	public double getValue() {
+		return isReady() ? value : Double.NaN;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		previousClose = 0;
+		value = 0;
+	}
+}
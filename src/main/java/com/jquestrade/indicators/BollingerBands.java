@@ -0,0 +1,89 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+/** Bollinger Bands: a {@link SMA simple moving average} of the closing price (the middle band), and an upper and a lower band that are a number
+ * of standard deviations above and below it. The standard deviation is that of the same {@code period} closing prices.
+ * {@link #getValue()} returns the middle band.
+ * @see <a href="https://www.investopedia.com/terms/b/bollingerbands.asp">The definition of Bollinger Bands on investopedia.com</a>
+ */
+public class BollingerBands extends Indicator {
+
+	/** The closing prices of the last {@code period} candles. */
+	private final RollingWindow window;
+	private final double deviations;
+
+	/** Creates Bollinger Bands with the usual two standard deviations.
+	 * @param period The number of candles to average. 20 is the usual period.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	public BollingerBands(int period) {
+		this(period, 2);
+	}
+
+	/** Creates Bollinger Bands.
+	 * @param period The number of candles to average.
+	 * @param deviations How many standard deviations the upper and lower bands are from the middle band.
+	 * @throws ArgumentException If the period is less than 1 or the deviations are negative.
+	 */
+	public BollingerBands(int period, double deviations) {
+		super(period);
+		if(deviations < 0) {
+			throw new ArgumentException("deviations argument cannot be negative");
+		}
+		this.window = new RollingWindow(period);
+		this.deviations = deviations;
+	}
+
+	@Override
+	public void update(double high, double low, double close) {
+		window.add(close);
+		count++;
+	}
+
+	/** Returns the middle band, the simple moving average.
+	 * @return The middle band, or {@code Double.NaN} if the indicator isn't ready yet.
+	 */
+	@Override
+	public double getValue() {
+		return isReady() ? window.getSum() / period : Double.NaN;
+	}
+
+	/** Returns the middle band, the simple moving average.
+	 * @return The middle band, or {@code Double.NaN} if the indicator isn't ready yet.
+	 */
+	public double getMiddle() {
+		return getValue();
+	}
+
+	/** Returns the upper band.
+	 * @return The upper band, or {@code Double.NaN} if the indicator isn't ready yet.
+	 */
+	public double getUpper() {
+		return getValue() + deviations * getStandardDeviation();
+	}
+
+	/** Returns the lower band.
+	 * @return The lower band, or {@code Double.NaN} if the indicator isn't ready yet.
+	 */
+	public double getLower() {
+		return getValue() - deviations * getStandardDeviation();
+	}
+
+	/** Returns the (population) standard deviation of the last {@code period} closing prices.
+	 * @return The standard deviation, or {@code Double.NaN} if the indicator isn't ready yet.
+	 */
+	public double getStandardDeviation() {
+		if(!isReady()) {
+			return Double.NaN;
+		}
+		double mean = window.getSum() / period;
+		return Math.sqrt(Math.max(window.getSumOfSquares() / period - mean * mean, 0));
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		window.clear();
+	}
+}
@@ -0,0 +1,45 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+/** The Exponential Moving Average of the closing price, which gives more weight to recent candles. The weight of each new candle is
+ * {@code 2 / (period + 1)}. The first value is the simple average of the first {@code period} candles.
+ * @see <a href="https://www.investopedia.com/terms/e/ema.asp">The definition of the EMA on investopedia.com</a>
+ */
+public class EMA extends Indicator {
+
+	private final double weight;
+	private double value;
+
+	/** Creates an Exponential Moving Average.
+	 * @param period The number of candles that the weight is based on.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	public EMA(int period) {
+		super(period);
+		this.weight = 2.0 / (period + 1);
+	}
+
+	@Override
+	public void update(double high, double low, double close) {
+		count++;
+		if(count < period) {
+			value += close;
+		} else if(count == period) {
+			value = (value + close) / period;
+		} else {
+			value += (close - value) * weight;
+		}
+	}
+
+	@Override
+	public double getValue() {
+		return isReady() ? value : Double.NaN;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		value = 0;
+	}
+}
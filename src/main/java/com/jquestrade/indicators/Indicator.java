@@ -0,0 +1,90 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.Candle;
+import com.jquestrade.CandleSeries;
+import com.jquestrade.exceptions.ArgumentException;
+
+/** A technical indicator that is updated one candle at a time. Each update takes constant time and creates no objects, no matter the period,
+ * so an indicator can be kept up to date for every symbol of a large watchlist as new candles arrive, instead of being recomputed over
+ * the whole window each time.<br><br>
+ *
+ * An indicator holds the state of one symbol and is not thread-safe. Use one instance per symbol; different instances can be updated
+ * from different threads at the same time.
+ */
+public abstract class Indicator {
+
+	/** The number of candles that the indicator is computed over. */
+	protected final int period;
+
+	/** The number of updates since the indicator was created or reset. */
+	protected long count;
+
+	/** Creates an indicator.
+	 * @param period The number of candles that the indicator is computed over.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	protected Indicator(int period) {
+		if(period < 1) {
+			throw new ArgumentException("period argument cannot be less than 1");
+		}
+		this.period = period;
+	}
+
+	/** Updates the indicator with the next candle.
+	 * @param high The highest price during the candle.
+	 * @param low The lowest price during the candle.
+	 * @param close The closing price of the candle.
+	 */
+	public abstract void update(double high, double low, double close);
+
+	/** Updates the indicator with the next candle.
+	 * @param candle The next candle.
+	 */
+	public void update(Candle candle) {
+		update(candle.getHigh(), candle.getLow(), candle.getClose());
+	}
+
+	/** Updates the indicator with a candle of a series.
+	 * @param series The series that holds the candle.
+	 * @param index The index of the candle in the series.
+	 */
+	public void update(CandleSeries series, int index) {
+		update(series.getHighs()[index], series.getLows()[index], series.getCloses()[index]);
+	}
+
+	/** Updates the indicator with every candle of a series, in order.
+	 * @param series The series of candles.
+	 */
+	public void updateAll(CandleSeries series) {
+		double[] highs = series.getHighs();
+		double[] lows = series.getLows();
+		double[] closes = series.getCloses();
+		for(int i = 0; i < closes.length; i++) {
+			update(highs[i], lows[i], closes[i]);
+		}
+	}
+
+	/** Returns the current value of the indicator.
+	 * @return The current value, or {@code Double.NaN} if the indicator isn't {@link #isReady() ready} yet.
+	 */
+	public abstract double getValue();
+
+	/** Returns whether the indicator has been updated with enough candles to have a value.
+	 * @return {@code true} if {@link #getValue()} returns a value.
+	 */
+	public boolean isReady() {
+		return count >= period;
+	}
+
+	/** Returns the number of candles that the indicator is computed over.
+	 * @return The period.
+	 */
+	public int getPeriod() {
+		return period;
+	}
+
+	/** Clears the indicator's state, as if it had just been created. */
+	public void reset() {
+		count = 0;
+	}
+}
@@ -0,0 +1,67 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+/** The Relative Strength Index, from 0 to 100, using Wilder's smoothing of the average gain and loss between closing prices.
+ * The first averages are the simple averages of the first {@code period} changes, so the first value is available after {@code period + 1} candles.
+ * @see <a href="https://www.investopedia.com/terms/r/rsi.asp">The definition of the RSI on investopedia.com</a>
+ */
+public class RSI extends Indicator {
+
+	private double previousClose;
+	private double averageGain;
+	private double averageLoss;
+
+	/** Creates a Relative Strength Index.
+	 * @param period The number of changes to average. 14 is the usual period.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	public RSI(int period) {
+		super(period);
+	}
+
+	@Override
+	public void update(double high, double low, double close) {
+		if(count++ == 0) {
+			previousClose = close;
+			return;
+		}
+
+		double change = close - previousClose;
+		double gain = change > 0 ? change : 0;
+		double loss = change < 0 ? -change : 0;
+		previousClose = close;
+
+		// count is one more than the number of changes, so the first period changes seed the averages
+		if(count <= period + 1) {
+			averageGain += gain / period;
+			averageLoss += loss / period;
+		} else {
+			averageGain = (averageGain * (period - 1) + gain) / period;
+			averageLoss = (averageLoss * (period - 1) + loss) / period;
+		}
+	}
+
+	@Override
+	public double getValue() {
+		if(!isReady()) {
+			return Double.NaN;
+		} else if(averageLoss == 0) {
+			return averageGain == 0 ? 50 : 100;
+		}
+		return 100 - 100 / (1 + averageGain / averageLoss);
+	}
+
+	@Override
+	public boolean isReady() {
+		return count > period;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		previousClose = 0;
+		averageGain = 0;
+		averageLoss = 0;
+	}
+}
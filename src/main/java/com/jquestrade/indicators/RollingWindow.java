@@ -0,0 +1,87 @@
+package com.jquestrade.indicators;
+
+import java.util.Arrays;
+
+/** The last {@code period} values of an indicator's input, with their running sum and sum of squares.<br><br>
+ *
+ * The sums are updated by adding the new value and subtracting the one that leaves the window. Both are compensated (Kahan-Babuska) sums,
+ * so the rounding errors don't build up over a long series, even after a value much larger than the others has come and gone.
+ */
+final class RollingWindow {
+
+	/** A compensated sum: the low-order bits that are lost when adding to {@code sum} are kept in {@code error}. */
+	private static final class Sum {
+
+		private double sum;
+		private double error;
+
+		void add(double value) {
+			double total = sum + value;
+			if(Math.abs(sum) >= Math.abs(value)) {
+				error += (sum - total) + value;
+			} else {
+				error += (value - total) + sum;
+			}
+			sum = total;
+		}
+
+		double get() {
+			return sum + error;
+		}
+
+		void clear() {
+			sum = 0;
+			error = 0;
+		}
+	}
+
+	private final double[] values;
+	private final Sum sum = new Sum();
+	private final Sum sumOfSquares = new Sum();
+	private int next;
+
+	/** Creates an empty window. Until {@code period} values have been added, the missing ones count as zeros.
+	 * @param period The number of values that the window holds.
+	 */
+	RollingWindow(int period) {
+		this.values = new double[period];
+	}
+
+	/** Adds a value to the window, and drops the oldest one if the window is full.
+	 * @param value The value to add.
+	 */
+	void add(double value) {
+		double removed = values[next];
+		values[next] = value;
+		if(++next == values.length) {
+			next = 0;
+		}
+
+		sum.add(value);
+		sum.add(-removed);
+		sumOfSquares.add(value * value);
+		sumOfSquares.add(-removed * removed);
+	}
+
+	/** Returns the sum of the values in the window.
+	 * @return The sum.
+	 */
+	double getSum() {
+		return sum.get();
+	}
+
+	/** Returns the sum of the squares of the values in the window.
+	 * @return The sum of the squares.
+	 */
+	double getSumOfSquares() {
+		return sumOfSquares.get();
+	}
+
+	/** Removes every value from the window. */
+	void clear() {
+		Arrays.fill(values, 0);
+		next = 0;
+		sum.clear();
+		sumOfSquares.clear();
+	}
+}
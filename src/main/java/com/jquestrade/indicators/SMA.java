@@ -0,0 +1,38 @@
+package com.jquestrade.indicators;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+/** The Simple Moving Average: the average closing price of the last {@code period} candles.
+ * @see <a href="https://www.investopedia.com/terms/s/sma.asp">The definition of the SMA on investopedia.com</a>
+ */
+public class SMA extends Indicator {
+
+	/** The closing prices of the last {@code period} candles. */
+	private final RollingWindow window;
+
+	/** Creates a Simple Moving Average.
+	 * @param period The number of candles to average.
+	 * @throws ArgumentException If the period is less than 1.
+	 */
+	public SMA(int period) {
+		super(period);
+		this.window = new RollingWindow(period);
+	}
+
+	@Override
+	public void update(double high, double low, double close) {
+		window.add(close);
+		count++;
+	}
+
+	@Override
+	public double getValue() {
+		return isReady() ? window.getSum() / period : Double.NaN;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		window.clear();
+	}
+}
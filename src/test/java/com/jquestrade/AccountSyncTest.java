@@ -0,0 +1,80 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.jquestrade.exceptions.StatusCodeException;
+
+class AccountSyncTest {
+
+	private static final ZonedDateTime SINCE = ZonedDateTime.now(ZoneOffset.UTC).minusDays(45).truncatedTo(ChronoUnit.SECONDS);
+
+	@Test
+	void failedSyncKeepsViewAndWatermarks() throws Exception {
+		AtomicBoolean failLaterWindow = new AtomicBoolean(true);
+		FakeTransport transport = new FakeTransport(request -> {
+			String path = request.uri().getPath();
+			if(path.endsWith("/executions")) {
+				if(isFirstWindow(request)) {
+					return FakeTransport.Reply.ok("{\"executions\":[{\"id\":1,\"orderId\":5,\"timestamp\":\""
+							+ Timestamps.formatRequest(SINCE.plusDays(10)) + "\"}]}");
+				} else if(failLaterWindow.get()) {
+					return new FakeTransport.Reply(500, "{\"code\":1000,\"message\":\"Internal error\"}");
+				}
+				return FakeTransport.Reply.ok("{\"executions\":[]}");
+			}
+			return FakeTransport.Reply.ok("{\"orders\":[]}");
+		});
+		AccountSync sync = new AccountSync(transport.questrade(), SINCE);
+
+		assertThrows(StatusCodeException.class, () -> sync.sync("123"));
+		assertTrue(sync.getExecutions("123").isEmpty());
+
+		failLaterWindow.set(false);
+		transport.getRequests().clear();
+		AccountSync.Changes changes = sync.sync("123");
+
+		// The first window still starts at the initial time, so the execution is reported by the sync that succeeded
+		assertEquals(1, changes.getExecutions().length);
+		assertEquals(1, sync.getExecutions("123").size());
+		long firstWindows = transport.getRequests().stream()
+				.filter(request -> request.uri().getPath().endsWith("/executions"))
+				.filter(AccountSyncTest::isFirstWindow)
+				.count();
+		assertEquals(1, firstWindows);
+	}
+
+	@Test
+	void watermarkAdvancesAfterSuccessfulSync() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> request.uri().getPath().endsWith("/executions")
+				? FakeTransport.Reply.ok("{\"executions\":[{\"id\":1,\"orderId\":5,\"timestamp\":\""
+						+ Timestamps.formatRequest(SINCE.plusDays(40)) + "\"}]}")
+				: FakeTransport.Reply.ok("{\"orders\":[]}"));
+		AccountSync sync = new AccountSync(transport.questrade(), SINCE);
+
+		sync.sync("123");
+		transport.getRequests().clear();
+		assertTrue(sync.sync("123").isEmpty());
+
+		// Only one window is needed from a little before the latest execution
+		long executionRequests = transport.getRequests().stream()
+				.filter(request -> request.uri().getPath().endsWith("/executions"))
+				.count();
+		assertEquals(1, executionRequests);
+	}
+
+	private static boolean isFirstWindow(HttpRequest request) {
+		return ZonedDateTime.parse(FakeTransport.parameter(request, "startTime")).toInstant()
+				.equals(SINCE.minus(Duration.ofMinutes(1)).toInstant());
+	}
+}
@@ -0,0 +1,45 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.jquestrade.Candle.Interval;
+
+class ChunkedRequestsTest {
+
+	private static final ZonedDateTime START = ZonedDateTime.parse("2020-01-01T00:00:00-05:00");
+
+	@Test
+	void candleFailureReturnsNullWhetherOrNotSplit() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ioError());
+		Questrade questrade = transport.questrade();
+
+		assertNull(questrade.getCandles(8049, START, START.plusDays(10), Interval.OneDay));
+		assertEquals(1, transport.getRequests().size());
+
+		assertNull(questrade.getCandles(8049, START, START.plusDays(10), Interval.OneMinute));
+		assertNull(questrade.getCandleSeries(8049, START, START.plusDays(10), Interval.OneMinute));
+	}
+
+	@Test
+	void activityFailureReturnsNullWhetherOrNotSplit() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ioError());
+		Questrade questrade = transport.questrade();
+
+		assertNull(questrade.getActivities("123", START, START.plusDays(10)));
+		assertNull(questrade.getActivities("123", START, START.plusDays(100)));
+	}
+
+	@Test
+	void oneFailedChunkFailsTheWholeCall() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.parameter(request, "startTime").startsWith("2020-01-01")
+				? FakeTransport.Reply.ok("{\"activities\":[]}")
+				: FakeTransport.Reply.ioError());
+
+		assertNull(transport.questrade().getActivities("123", START, START.plusDays(100)));
+	}
+}
@@ -0,0 +1,178 @@
+package com.jquestrade;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLSession;
+
+/** A {@link Transport} that answers requests locally, so that a {@link Questrade} object can be tested without the Questrade API. */
+final class FakeTransport implements Transport {
+
+	/** A canned response. */
+	static final class Reply {
+		final int statusCode;
+		final String body;
+		final IOException error;
+		final CountDownLatch bodyArrives;
+
+		Reply(int statusCode, String body) {
+			this(statusCode, body, null, null);
+		}
+
+		private Reply(int statusCode, String body, IOException error, CountDownLatch bodyArrives) {
+			this.statusCode = statusCode;
+			this.body = body;
+			this.error = error;
+			this.bodyArrives = bodyArrives;
+		}
+
+		static Reply ok(String body) {
+			return new Reply(200, body);
+		}
+
+		/** A request that fails to reach the server, such as when the connection is lost. */
+		static Reply ioError() {
+			return new Reply(0, null, new IOException("Connection reset"), null);
+		}
+
+		/** A successful response whose headers arrive right away, but whose body can't be read until the latch opens. */
+		static Reply slowBody(String body, CountDownLatch bodyArrives) {
+			return new Reply(200, body, null, bodyArrives);
+		}
+	}
+
+	private final Function<HttpRequest, Reply> handler;
+	private final List<HttpRequest> requests = new CopyOnWriteArrayList<>();
+
+	FakeTransport(Function<HttpRequest, Reply> handler) {
+		this.handler = handler;
+	}
+
+	/** Returns a {@code Questrade} object that was activated with cached tokens and sends its requests through this transport. */
+	Questrade questrade() {
+		try {
+			return new Questrade("refresh", "access", "https://api.test/").setTransport(this).activate();
+		} catch(Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/** Returns the requests sent so far, in order. */
+	List<HttpRequest> getRequests() {
+		return requests;
+	}
+
+	@Override
+	public HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+		requests.add(request);
+		Reply reply = handler.apply(request);
+		if(reply.error != null) {
+			throw reply.error;
+		}
+		return new Response(request, reply);
+	}
+
+	@Override
+	public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+		try {
+			return CompletableFuture.completedFuture(send(request));
+		} catch(IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/** Returns the value of a query parameter of a request, or {@code null} if it doesn't have one. */
+	static String parameter(HttpRequest request, String name) {
+		String query = request.uri().getRawQuery();
+		if(query == null) {
+			return null;
+		}
+		for(String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+			if(pair.substring(0, equals).equals(name)) {
+				return java.net.URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+			}
+		}
+		return null;
+	}
+
+	private static final class Response implements HttpResponse<InputStream> {
+		private final HttpRequest request;
+		private final Reply reply;
+
+		Response(HttpRequest request, Reply reply) {
+			this.request = request;
+			this.reply = reply;
+		}
+
+		@Override
+		public int statusCode() {
+			return reply.statusCode;
+		}
+
+		@Override
+		public HttpRequest request() {
+			return request;
+		}
+
+		@Override
+		public Optional<HttpResponse<InputStream>> previousResponse() {
+			return Optional.empty();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return HttpHeaders.of(Map.of(), (name, value) -> true);
+		}
+
+		@Override
+		public InputStream body() {
+			InputStream body = new ByteArrayInputStream(reply.body.getBytes(StandardCharsets.UTF_8));
+			if(reply.bodyArrives == null) {
+				return body;
+			}
+			return new FilterInputStream(body) {
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					try {
+						reply.bodyArrives.await();
+					} catch(InterruptedException e) {
+						throw new InterruptedIOException();
+					}
+					return super.read(b, off, len);
+				}
+			};
+		}
+
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+
+		@Override
+		public URI uri() {
+			return request.uri();
+		}
+
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
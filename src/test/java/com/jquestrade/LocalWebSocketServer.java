@@ -0,0 +1,191 @@
+package com.jquestrade;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/** A minimal WebSocket server on the loopback interface, to stand in for a quote streaming port. It only supports what a
+ * {@link QuoteStream} uses: unfragmented text messages, and dropping the connection.
+ */
+final class LocalWebSocketServer implements AutoCloseable {
+
+	private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+	private final ServerSocket server;
+	private final BlockingQueue<Connection> connections = new LinkedBlockingQueue<>();
+
+	/** One accepted connection. */
+	static final class Connection {
+		private final Socket socket;
+		private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+		Connection(Socket socket) {
+			this.socket = socket;
+		}
+
+		/** Waits for the next text message from the client. */
+		String receive() throws InterruptedException {
+			String text = received.poll(5, TimeUnit.SECONDS);
+			if(text == null) {
+				throw new AssertionError("No message was received");
+			}
+			return text;
+		}
+
+		/** Sends a text message to the client. */
+		synchronized void send(String text) throws IOException {
+			byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+			OutputStream out = socket.getOutputStream();
+			out.write(0x81); // Final fragment of a text message
+			if(payload.length < 126) {
+				out.write(payload.length);
+			} else {
+				out.write(126);
+				out.write(payload.length >>> 8);
+				out.write(payload.length);
+			}
+			out.write(payload);
+			out.flush();
+		}
+
+		/** Drops the connection without a close handshake, like a lost network connection. */
+		void drop() throws IOException {
+			socket.close();
+		}
+	}
+
+	LocalWebSocketServer() throws IOException {
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::accept, "websocket-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/** Returns the URI to connect to. */
+	URI getUri() {
+		return URI.create("ws://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/");
+	}
+
+	/** Waits for the next connection. */
+	Connection accept(long timeout, TimeUnit unit) throws InterruptedException {
+		Connection connection = connections.poll(timeout, unit);
+		if(connection == null) {
+			throw new AssertionError("No connection was made");
+		}
+		return connection;
+	}
+
+	@Override
+	public void close() throws IOException {
+		server.close();
+	}
+
+	private void accept() {
+		while(!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				Connection connection = new Connection(socket);
+				Thread reader = new Thread(() -> serve(connection), "websocket-connection");
+				reader.setDaemon(true);
+				reader.start();
+			} catch(IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void serve(Connection connection) {
+		try {
+			DataInputStream in = new DataInputStream(connection.socket.getInputStream());
+			handshake(connection.socket, in);
+			connections.add(connection);
+
+			ByteArrayOutputStream message = new ByteArrayOutputStream();
+			while(true) {
+				int first = in.readUnsignedByte();
+				int second = in.readUnsignedByte();
+				long length = second & 0x7F;
+				if(length == 126) {
+					length = in.readUnsignedShort();
+				} else if(length == 127) {
+					length = in.readLong();
+				}
+				byte[] mask = new byte[4];
+				in.readFully(mask); // Client frames are always masked
+				byte[] payload = new byte[(int) length];
+				in.readFully(payload);
+				for(int i = 0; i < payload.length; i++) {
+					payload[i] ^= mask[i % 4];
+				}
+
+				int opcode = first & 0x0F;
+				if(opcode == 8) {
+					connection.socket.close();
+					return;
+				} else if(opcode == 1 || opcode == 0) {
+					message.write(payload);
+					if((first & 0x80) != 0) {
+						connection.received.add(message.toString(StandardCharsets.UTF_8));
+						message.reset();
+					}
+				}
+			}
+		} catch(IOException e) {
+			// The connection was dropped
+		}
+	}
+
+	/** Reads the client's upgrade request and accepts it. */
+	private static void handshake(Socket socket, InputStream in) throws IOException {
+		String key = null;
+		String line;
+		while(!(line = readLine(in)).isEmpty()) {
+			int colon = line.indexOf(':');
+			if(colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+				key = line.substring(colon + 1).trim();
+			}
+		}
+
+		String accept;
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII));
+			accept = Base64.getEncoder().encodeToString(digest);
+		} catch(NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+
+		OutputStream out = socket.getOutputStream();
+		out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+				+ "Upgrade: websocket\r\n"
+				+ "Connection: Upgrade\r\n"
+				+ "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int c;
+		while((c = in.read()) != '\n') {
+			if(c == -1) {
+				throw new IOException("The connection closed during the handshake");
+			}
+			if(c != '\r') {
+				line.append((char) c);
+			}
+		}
+		return line.toString();
+	}
+}
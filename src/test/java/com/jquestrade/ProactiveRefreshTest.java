@@ -0,0 +1,49 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ProactiveRefreshTest {
+
+	private static final String AUTHORIZATION = "{\"access_token\":\"new\",\"api_server\":\"https://api.test/\",\"expires_in\":1800,"
+			+ "\"refresh_token\":\"next\",\"token_type\":\"Bearer\"}";
+
+	@Test
+	void cachedTokensWithoutExpiryAreNotRefreshed() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(AUTHORIZATION));
+		Questrade questrade = new Questrade("refresh", "access", "https://api.test/")
+				.setTransport(transport)
+				.setProactiveRefresh(Duration.ofMinutes(1))
+				.activate();
+
+		Thread.sleep(200);
+		assertNull(questrade.getAuthorization().getAccessTokenExpiryTime());
+		assertEquals(0, transport.getRequests().size());
+		assertEquals("access", questrade.getAuthorization().getAccessToken());
+		questrade.setProactiveRefresh(null);
+	}
+
+	@Test
+	void cachedTokensWithExpiryAreRefreshedAheadOfIt() throws Exception {
+		CountDownLatch refreshed = new CountDownLatch(1);
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(AUTHORIZATION));
+		Questrade questrade = new Questrade("refresh", "access", "https://api.test/", Instant.now().plusSeconds(30))
+				.setTransport(transport)
+				.setAuthRelay(authorization -> refreshed.countDown())
+				.setProactiveRefresh(Duration.ofMinutes(1))
+				.activate();
+
+		assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+		assertEquals("new", questrade.getAuthorization().getAccessToken());
+		assertEquals("refresh", FakeTransport.parameter(transport.getRequests().get(0), "refresh_token"));
+		questrade.setProactiveRefresh(null);
+	}
+}
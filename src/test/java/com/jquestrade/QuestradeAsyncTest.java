@@ -0,0 +1,82 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class QuestradeAsyncTest {
+
+	private static final String QUOTES = "{\"quotes\":[{\"symbol\":\"AAPL\",\"symbolId\":8049,\"lastTradePrice\":150.25}]}\n";
+
+	@Test
+	void decodesStreamedBody() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(QUOTES));
+		Quote[] quotes = transport.questrade().async().getQuote(8049).get();
+
+		assertEquals(1, quotes.length);
+		assertEquals(8049, quotes[0].getSymbolId());
+		assertEquals(150.25, quotes[0].getLastTradePrice());
+	}
+
+	@Test
+	void decodesOnExecutor() throws Exception {
+		AtomicInteger tasks = new AtomicInteger();
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(QUOTES));
+		Questrade questrade = transport.questrade().setExecutor(task -> {
+			tasks.incrementAndGet();
+			new Thread(task).start();
+		});
+
+		assertEquals(1, questrade.async().getQuote(8049).get().length);
+		assertEquals(1, tasks.get());
+	}
+
+	@Test
+	void boundsDecoderThreadsByDefault() throws Exception {
+		CountDownLatch bodyArrives = new CountDownLatch(1);
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.slowBody(QUOTES, bodyArrives));
+		Questrade questrade = transport.questrade();
+
+		// Many responses whose bodies are all still arriving
+		int inFlight = QuestradeExecutors.Decoders.THREADS * 4;
+		List<CompletableFuture<Quote[]>> results = new ArrayList<>();
+		for(int i = 0; i < inFlight; i++) {
+			results.add(questrade.async().getQuote(8049));
+		}
+		Thread.sleep(200);
+
+		// The threads waiting for a body to arrive
+		long reading = Thread.getAllStackTraces().values().stream()
+				.filter(stack -> Arrays.stream(stack).anyMatch(frame -> frame.getClassName().startsWith(FakeTransport.class.getName() + "$")
+						&& frame.getMethodName().equals("read")))
+				.count();
+		assertTrue(reading > 0);
+		assertTrue(reading <= QuestradeExecutors.Decoders.THREADS, reading + " threads");
+
+		bodyArrives.countDown();
+		for(CompletableFuture<Quote[]> result : results) {
+			assertEquals(8049, result.get(5, TimeUnit.SECONDS)[0].getSymbolId());
+		}
+	}
+
+	@Test
+	void blockingAndAsyncAgree() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(QUOTES));
+		Questrade questrade = transport.questrade();
+
+		Quote blocking = questrade.getQuote(8049)[0];
+		Quote async = questrade.async().getQuote(8049).get()[0];
+
+		assertEquals(blocking.getSymbol(), async.getSymbol());
+		assertTrue(transport.getRequests().get(1).uri().toString().contains("markets/quotes"));
+	}
+}
@@ -0,0 +1,118 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class QuestradePoolTest {
+
+	private static Questrade questrade() {
+		return new FakeTransport(request -> FakeTransport.Reply.ok("{}")).questrade();
+	}
+
+	@Test
+	void busyTenantDoesntStarveOthers() throws Exception {
+		int perTenant = 2;
+		QuestradePool pool = new QuestradePool(3, perTenant);
+		pool.add("alice", questrade());
+		pool.add("bob", questrade());
+
+		// Every request waits until the test completes it, and records who started and the most of alice's in flight
+		List<String> started = new CopyOnWriteArrayList<>();
+		List<CompletableFuture<String>> pending = new CopyOnWriteArrayList<>();
+		AtomicInteger mostInFlight = new AtomicInteger();
+		Function<String, Function<QuestradeAsync, CompletableFuture<String>>> request = tenant -> q -> {
+			started.add(tenant);
+			mostInFlight.accumulateAndGet(pool.getUsage("alice").getInFlight(), Math::max);
+			CompletableFuture<String> future = new CompletableFuture<>();
+			pending.add(future);
+			return future;
+		};
+
+		List<CompletableFuture<String>> results = new ArrayList<>();
+		for(int i = 0; i < 20; i++) {
+			results.add(pool.submit("alice", request.apply("alice")));
+		}
+
+		// Alice is held to her own limit, which leaves a slot free for bob's first request
+		assertEquals(List.of("alice", "alice"), started);
+		assertEquals(18, pool.getUsage("alice").getQueued());
+		results.add(pool.submit("bob", request.apply("bob")));
+		results.add(pool.submit("bob", request.apply("bob")));
+		assertEquals(List.of("alice", "alice", "bob"), started);
+
+		// All slots are taken, and the first one to free up goes to bob's second request, not to alice's eighteen waiting ones
+		pending.get(0).complete("done");
+		assertEquals("bob", started.get(3));
+
+		// Then alice's requests run as slots free up
+		while(pending.stream().anyMatch(future -> !future.isDone())) {
+			pending.stream().filter(future -> !future.isDone()).findFirst().get().complete("done");
+		}
+		for(CompletableFuture<String> result : results) {
+			assertEquals("done", result.get(1, TimeUnit.SECONDS));
+		}
+		assertEquals(22, started.size());
+		assertEquals(perTenant, mostInFlight.get());
+		assertEquals(0, pool.getUsage("alice").getInFlight());
+	}
+
+	@Test
+	void nullFutureFailsTheCallAndFreesItsSlot() throws Exception {
+		QuestradePool pool = new QuestradePool(1, 1);
+		pool.add("alice", questrade());
+
+		CompletableFuture<Object> returnedNull = pool.submit("alice", q -> null);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> returnedNull.get(1, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof NullPointerException);
+
+		assertEquals("done", pool.submit("alice", q -> CompletableFuture.completedFuture("done")).get(1, TimeUnit.SECONDS));
+		assertEquals(0, pool.getUsage("alice").getInFlight());
+		assertEquals(1, pool.getUsage("alice").getFailed());
+	}
+
+	@Test
+	void failingRequestsDontHoldUpOthers() throws Exception {
+		QuestradePool pool = new QuestradePool(2, 2);
+		pool.add("alice", questrade());
+		pool.add("bob", questrade());
+
+		CompletableFuture<String> blocker = new CompletableFuture<>();
+		pool.submit("alice", q -> blocker);
+		pool.submit("bob", q -> blocker);
+
+		// Queued behind the two in flight, then all started from the same completion
+		List<CompletableFuture<Object>> results = new ArrayList<>();
+		for(int i = 0; i < 10; i++) {
+			int n = i;
+			results.add(pool.submit(n % 2 == 0 ? "alice" : "bob", q -> {
+				if(n % 3 == 0) {
+					throw new IllegalStateException("request " + n);
+				}
+				return n % 3 == 1 ? null : CompletableFuture.completedFuture(n);
+			}));
+		}
+		blocker.complete("go");
+
+		for(int i = 0; i < results.size(); i++) {
+			CompletableFuture<Object> result = results.get(i);
+			if(i % 3 == 2) {
+				assertEquals(i, result.get(1, TimeUnit.SECONDS));
+			} else {
+				assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+			}
+		}
+		assertEquals(0, pool.getUsage("alice").getInFlight() + pool.getUsage("bob").getInFlight());
+	}
+}
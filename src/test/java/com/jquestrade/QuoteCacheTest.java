@@ -0,0 +1,82 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+
+import org.junit.jupiter.api.Test;
+
+class QuoteCacheTest {
+
+	/** Answers every quote request with a quote for each requested symbol. */
+	private static QuoteCache cache(int maxSize) {
+		FakeTransport transport = new FakeTransport(request -> {
+			StringJoiner quotes = new StringJoiner(",", "{\"quotes\":[", "]}");
+			for(String id : FakeTransport.parameter(request, "ids").split(",")) {
+				quotes.add("{\"symbolId\":" + id + ",\"lastTradePrice\":1}");
+			}
+			return FakeTransport.Reply.ok(quotes.toString());
+		});
+		QuoteCoalescer coalescer = new QuoteCoalescer(transport.questrade(), Duration.ZERO, 100);
+		return new QuoteCache(coalescer, Duration.ofMinutes(1), Duration.ZERO, maxSize);
+	}
+
+	@Test
+	void evictsLeastRecentlyReadInSmallCache() throws Exception {
+		QuoteCache cache = cache(3);
+		cache.getQuote(1);
+		cache.getQuote(2);
+		cache.getQuote(3);
+		cache.getQuote(1);
+		cache.getQuote(3);
+
+		cache.getQuote(4);
+
+		assertEquals(3, cache.size());
+		assertNull(cache.peek(2));
+		assertNotNull(cache.peek(1));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	void keepsHotQuotesWhenColdOnesStreamThrough() throws Exception {
+		int hot = 16;
+		QuoteCache cache = cache(40);
+		for(int id = 1; id <= 40; id++) {
+			cache.getQuote(id);
+		}
+
+		// The hot symbols have the lowest IDs, which is where iterating a hash map of them starts
+		for(int id = 41; id <= 100; id++) {
+			for(int hotId = 1; hotId <= hot; hotId++) {
+				cache.getQuote(hotId);
+			}
+			cache.getQuote(id);
+		}
+
+		int kept = 0;
+		for(int id = 1; id <= hot; id++) {
+			if(cache.peek(id) != null) {
+				kept++;
+			}
+		}
+		assertEquals(40, cache.size());
+		assertEquals(hot, kept);
+	}
+
+	@Test
+	void invalidateKeepsRemainingEntriesEvictable() throws Exception {
+		QuoteCache cache = cache(2);
+		cache.getQuote(1);
+		cache.getQuote(2);
+		cache.invalidate(1);
+		cache.getQuote(3);
+		cache.getQuote(4);
+
+		assertEquals(2, cache.size());
+		assertNull(cache.peek(2));
+	}
+}
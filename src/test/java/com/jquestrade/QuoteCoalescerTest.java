@@ -0,0 +1,65 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.jquestrade.exceptions.ArgumentException;
+
+class QuoteCoalescerTest {
+
+	@Test
+	void sharesOneRequest() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok(
+				"{\"quotes\":[{\"symbolId\":1,\"lastTradePrice\":10},{\"symbolId\":2,\"lastTradePrice\":20}]}"));
+		QuoteCoalescer coalescer = new QuoteCoalescer(transport.questrade(), Duration.ofSeconds(10), 2);
+
+		CompletableFuture<Quote> first = coalescer.getQuoteAsync(1);
+		CompletableFuture<Quote> second = coalescer.getQuoteAsync(2);
+
+		assertEquals(10, first.get(5, TimeUnit.SECONDS).getLastTradePrice());
+		assertEquals(20, second.get(5, TimeUnit.SECONDS).getLastTradePrice());
+		assertEquals(1, transport.getRequests().size());
+	}
+
+	@Test
+	void missingQuotesFailEveryCaller() throws Exception {
+		// A response without a quotes field decodes to null
+		FakeTransport transport = new FakeTransport(request -> FakeTransport.Reply.ok("{}"));
+		QuoteCoalescer coalescer = new QuoteCoalescer(transport.questrade(), Duration.ofSeconds(10), 100);
+
+		CompletableFuture<Quote> first = coalescer.getQuoteAsync(1);
+		CompletableFuture<Quote> second = coalescer.getQuoteAsync(2);
+		coalescer.flush();
+
+		for(CompletableFuture<Quote> future : List.of(first, second)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof ArgumentException);
+		}
+	}
+
+	@Test
+	void failedRequestFailsEveryCaller() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> {
+			throw new IllegalStateException("connection reset");
+		});
+		QuoteCoalescer coalescer = new QuoteCoalescer(transport.questrade(), Duration.ofMillis(1), 100);
+
+		CompletableFuture<Quote> first = coalescer.getQuoteAsync(1);
+		CompletableFuture<Quote> second = coalescer.getQuoteAsync(2);
+
+		// Sent by the scheduler thread when the window closes
+		for(CompletableFuture<Quote> future : List.of(first, second)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+class QuoteStreamTest {
+
+	/** An endpoint that points at a local server, after failing a given number of times. */
+	private static final class LocalEndpoint implements QuoteStream.Endpoint {
+		private final URI uri;
+		private final AtomicInteger failuresLeft;
+		final List<Long> openedAt = new CopyOnWriteArrayList<>();
+		final List<int[]> openedFor = new CopyOnWriteArrayList<>();
+
+		LocalEndpoint(URI uri, int failures) {
+			this.uri = uri;
+			this.failuresLeft = new AtomicInteger(failures);
+		}
+
+		@Override
+		public CompletableFuture<URI> open(int[] symbolIds) {
+			openedAt.add(System.nanoTime());
+			openedFor.add(symbolIds);
+			if(failuresLeft.getAndDecrement() > 0) {
+				return CompletableFuture.failedFuture(new IOException("No streaming port"));
+			}
+			return CompletableFuture.completedFuture(uri);
+		}
+
+		@Override
+		public String login() {
+			return "token";
+		}
+
+		long millisBetween(int from, int to) {
+			return TimeUnit.NANOSECONDS.toMillis(openedAt.get(to) - openedAt.get(from));
+		}
+	}
+
+	@Test
+	void reconnectsWithBackoff() throws Exception {
+		try(LocalWebSocketServer server = new LocalWebSocketServer()) {
+			LocalEndpoint endpoint = new LocalEndpoint(server.getUri(), 2);
+			List<Quote> quotes = new CopyOnWriteArrayList<>();
+			QuoteStream stream = new QuoteStream(endpoint).addListener(quotes::add);
+			stream.subscribe(9292, 8049);
+
+			// Two failed attempts, waiting 1 and then 2 seconds, before connecting
+			LocalWebSocketServer.Connection connection = server.accept(10, TimeUnit.SECONDS);
+			assertEquals("token", connection.receive());
+			assertEquals(3, endpoint.openedAt.size());
+			assertTrue(endpoint.millisBetween(0, 1) >= 900);
+			assertTrue(endpoint.millisBetween(1, 2) >= 1900);
+			assertArrayEquals(new int[] {8049, 9292}, endpoint.openedFor.get(2));
+
+			connection.send(quotes(8049, 150));
+			waitFor(() -> quotes.size() == 1);
+
+			// The connection worked, so after it drops, the delay starts over at 1 second
+			connection.drop();
+			LocalWebSocketServer.Connection reconnected = server.accept(10, TimeUnit.SECONDS);
+			assertEquals("token", reconnected.receive());
+			assertEquals(4, endpoint.openedAt.size());
+			assertTrue(endpoint.millisBetween(2, 3) < 1900);
+
+			reconnected.send(quotes(8049, 151));
+			waitFor(() -> quotes.size() == 2);
+			assertEquals(151, quotes.get(1).getLastTradePrice());
+			stream.close();
+		}
+	}
+
+	@Test
+	void conflatesForSlowListenerOnly() throws Exception {
+		try(LocalWebSocketServer server = new LocalWebSocketServer()) {
+			CountDownLatch slowEntered = new CountDownLatch(1);
+			CountDownLatch slowRelease = new CountDownLatch(1);
+			List<Quote> slow = new CopyOnWriteArrayList<>();
+			List<Quote> fast = new CopyOnWriteArrayList<>();
+
+			QuoteStream stream = new QuoteStream(new LocalEndpoint(server.getUri(), 0))
+					.setExecutor(task -> new Thread(task).start())
+					.addListener(quote -> {
+						slow.add(quote);
+						slowEntered.countDown();
+						await(slowRelease);
+					})
+					.addListener(fast::add);
+			stream.subscribe(1, 2);
+			LocalWebSocketServer.Connection connection = server.accept(5, TimeUnit.SECONDS);
+			connection.receive();
+
+			connection.send(quotes(1, 10));
+			assertTrue(slowEntered.await(5, TimeUnit.SECONDS));
+
+			// While the slow listener is busy, only the latest quote of each symbol is kept for it
+			for(int price = 11; price <= 15; price++) {
+				connection.send(quotes(1, price));
+				connection.send(quotes(2, price * 10));
+			}
+			waitFor(() -> lastPrice(fast, 2) == 150);
+			slowRelease.countDown();
+			waitFor(() -> slow.size() == 3);
+			Thread.sleep(100);
+
+			List<Double> slowPrices = new ArrayList<>();
+			for(Quote quote : slow) {
+				slowPrices.add(quote.getLastTradePrice());
+			}
+			assertEquals(List.of(10.0, 15.0, 150.0), slowPrices);
+			assertEquals(15, lastPrice(fast, 1));
+			stream.close();
+		}
+	}
+
+	private static String quotes(int symbolId, double lastTradePrice) {
+		return "{\"quotes\":[{\"symbolId\":" + symbolId + ",\"lastTradePrice\":" + lastTradePrice + "}]}";
+	}
+
+	private static double lastPrice(List<Quote> quotes, int symbolId) {
+		double price = Double.NaN;
+		for(Quote quote : quotes) {
+			if(quote.getSymbolId() == symbolId) {
+				price = quote.getLastTradePrice();
+			}
+		}
+		return price;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(!condition.getAsBoolean()) {
+			if(System.nanoTime() > deadline) {
+				throw new AssertionError("Timed out");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
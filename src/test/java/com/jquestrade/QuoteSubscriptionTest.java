@@ -0,0 +1,112 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.jquestrade.QuoteSubscription.Priority;
+
+class QuoteSubscriptionTest {
+
+	/** Answers the market, symbol and quote requests of a subscription to symbol 1 on the TSX. The market has no snap quote limit,
+	 * so the polls aren't spread over the rest of the day, which would make how soon they come depend on the time of day.
+	 */
+	private static FakeTransport.Reply reply(HttpRequest request, String quotes) {
+		String path = request.uri().getPath();
+		if(path.endsWith("/markets")) {
+			return FakeTransport.Reply.ok("{\"markets\":[{\"name\":\"TSX\",\"snapQuotesLimit\":0}]}");
+		} else if(path.contains("/symbols")) {
+			return FakeTransport.Reply.ok("{\"symbols\":[{\"symbolId\":1,\"symbol\":\"XYZ.TO\",\"listingExchange\":\"TSX\"}]}");
+		}
+		return FakeTransport.Reply.ok(quotes);
+	}
+
+	@Test
+	void keepsPollingAfterSendThrows() throws Exception {
+		AtomicInteger throwsLeft = new AtomicInteger(3);
+		FakeTransport fake = new FakeTransport(request -> reply(request, "{\"quotes\":[{\"symbolId\":1,\"lastTradePrice\":5}]}"));
+		Transport transport = new Transport() {
+			@Override
+			public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+				return fake.send(request);
+			}
+
+			@Override
+			public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+				if(request.uri().getPath().contains("/quotes") && throwsLeft.getAndDecrement() > 0) {
+					throw new IllegalStateException("Transport is shutting down");
+				}
+				return fake.sendAsync(request);
+			}
+		};
+		Questrade questrade = new Questrade("refresh", "access", "https://api.test/").setTransport(transport).activate();
+
+		List<Quote> quotes = new CopyOnWriteArrayList<>();
+		QuoteSubscription subscription = new QuoteSubscription(questrade, Duration.ofMillis(20), new SymbolCache(questrade))
+				.addListener(quotes::add);
+		subscription.subscribe(Priority.HIGH, 1);
+		subscription.start();
+		try {
+			waitFor(quotes, 1);
+		} finally {
+			subscription.stop();
+		}
+		Thread.sleep(200); // For a request still in flight
+
+		// The batches that couldn't be sent gave back their snap quotes
+		assertEquals(5, quotes.get(0).getLastTradePrice());
+		assertEquals(quotes.size(), subscription.getSnapQuotesUsed("TSX"));
+	}
+
+	@Test
+	void failedAndEmptyResponsesDontUseSnapQuotes() throws Exception {
+		AtomicInteger requests = new AtomicInteger();
+		FakeTransport transport = new FakeTransport(request -> {
+			if(!request.uri().getPath().contains("/quotes")) {
+				return reply(request, null);
+			}
+			switch(requests.incrementAndGet()) {
+				case 1: return FakeTransport.Reply.ioError();
+				case 2: return FakeTransport.Reply.ok("{}");
+				default: return FakeTransport.Reply.ok("{\"quotes\":[{\"symbolId\":1,\"lastTradePrice\":5}]}");
+			}
+		});
+		Questrade questrade = transport.questrade();
+
+		List<Quote> quotes = new CopyOnWriteArrayList<>();
+		QuoteSubscription subscription = new QuoteSubscription(questrade, Duration.ofMillis(20), new SymbolCache(questrade))
+				.addListener(quotes::add);
+		subscription.subscribe(Priority.HIGH, 1);
+		subscription.start();
+		try {
+			waitFor(quotes, 1);
+		} finally {
+			subscription.stop();
+		}
+		Thread.sleep(200); // For a request still in flight
+
+		// The empty response was still charged, since the request went through; the failed one wasn't
+		assertEquals(quotes.size() + 1, subscription.getSnapQuotesUsed("TSX"));
+	}
+
+	private static void waitFor(List<Quote> quotes, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(quotes.size() < count) {
+			if(System.nanoTime() > deadline) {
+				throw new AssertionError("No quotes were delivered");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.jquestrade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimeWindowsTest {
+
+	private static final ZonedDateTime START = ZonedDateTime.parse("2020-01-01T00:00:00-05:00");
+	private static final String BOUNDARY = "2020-01-31T00:00:00.000000-05:00";
+
+	@Test
+	void windowsTouch() {
+		List<ZonedDateTime[]> windows = Questrade.timeWindows(START, START.plusDays(75));
+
+		assertEquals(3, windows.size());
+		assertEquals(START, windows.get(0)[0]);
+		for(int i = 1; i < windows.size(); i++) {
+			assertEquals(windows.get(i - 1)[1], windows.get(i)[0]);
+		}
+		assertEquals(START.plusDays(75), windows.get(2)[1]);
+	}
+
+	@Test
+	void boundaryActivityIsReturnedOnce() throws Exception {
+		// Both windows return the activity at their shared boundary; the two different activities at that time are kept
+		FakeTransport transport = new FakeTransport(request -> {
+			boolean first = FakeTransport.parameter(request, "startTime").startsWith("2020-01-01");
+			return FakeTransport.Reply.ok("{\"activities\":["
+					+ (first ? activity("2020-01-10T00:00:00.000000-05:00", 1) + "," : "")
+					+ activity(BOUNDARY, 2) + "," + activity(BOUNDARY, 3)
+					+ (first ? "" : "," + activity("2020-02-10T00:00:00.000000-05:00", 4))
+					+ "]}");
+		});
+
+		Activity[] activities = transport.questrade().getActivities("123", START, START.plusDays(45));
+
+		assertEquals(2, transport.getRequests().size());
+		assertEquals(4, activities.length);
+		for(int i = 0; i < activities.length; i++) {
+			assertEquals(i + 1, activities[i].getNetAmount());
+		}
+	}
+
+	@Test
+	void boundaryOrderIsReturnedOnce() throws Exception {
+		FakeTransport transport = new FakeTransport(request -> {
+			String path = request.uri().getPath();
+			if(path.endsWith("/accounts/")) {
+				return FakeTransport.Reply.ok("{\"accounts\":[{\"number\":\"123\"}]}");
+			} else if(path.endsWith("/balances")) {
+				String balances = "[{\"currency\":\"CAD\"},{\"currency\":\"USD\"}]";
+				return FakeTransport.Reply.ok("{\"perCurrencyBalances\":" + balances + ",\"combinedBalances\":" + balances + "}");
+			} else if(path.endsWith("/orders")) {
+				return FakeTransport.Reply.ok("{\"orders\":[{\"id\":7,\"creationTime\":\"" + BOUNDARY + "\"}]}");
+			}
+			return FakeTransport.Reply.ok("{}");
+		});
+
+		PortfolioSnapshot snapshot = PortfolioSnapshot.fetch(transport.questrade(), ZonedDateTime.now().minusDays(45), Order.OrderState.All);
+
+		assertEquals(1, snapshot.getOrders("123").length);
+	}
+
+	private static String activity(String transactionDate, int netAmount) {
+		return "{\"transactionDate\":\"" + transactionDate + "\",\"type\":\"Dividends\",\"netAmount\":" + netAmount + "}";
+	}
+}
@@ -0,0 +1,51 @@
+package com.jquestrade.indicators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class BollingerBandsTest {
+
+	@Test
+	void bandsAreDeviationsFromAverage() {
+		BollingerBands bands = new BollingerBands(4, 2);
+		bands.update(2, 2, 2);
+		bands.update(4, 4, 4);
+		bands.update(4, 4, 4);
+		assertFalse(bands.isReady());
+
+		// 2, 4, 4, 6: the mean is 4 and the population standard deviation is sqrt(2)
+		bands.update(6, 6, 6);
+		assertEquals(4, bands.getMiddle(), 1e-12);
+		assertEquals(Math.sqrt(2), bands.getStandardDeviation(), 1e-12);
+		assertEquals(4 + 2 * Math.sqrt(2), bands.getUpper(), 1e-12);
+		assertEquals(4 - 2 * Math.sqrt(2), bands.getLower(), 1e-12);
+	}
+
+	@Test
+	void largeCloseLeavesNoRoundingError() {
+		BollingerBands bands = new BollingerBands(4);
+		bands.update(1e7, 1e7, 1e7);
+		for(double close : new double[] {0.1, 0.2, 0.3, 0.4, 0.5}) {
+			bands.update(close, close, close);
+		}
+		// 0.2, 0.3, 0.4, 0.5
+		assertEquals(0.35, bands.getMiddle(), 1e-12);
+		assertEquals(Math.sqrt(0.0125), bands.getStandardDeviation(), 1e-9);
+	}
+
+	@Test
+	void resetStartsOver() {
+		BollingerBands bands = new BollingerBands(2);
+		bands.update(50, 50, 50);
+		bands.update(90, 90, 90);
+		bands.reset();
+
+		bands.update(1, 1, 1);
+		assertFalse(bands.isReady());
+		bands.update(3, 3, 3);
+		assertEquals(2, bands.getMiddle(), 1e-12);
+		assertEquals(1, bands.getStandardDeviation(), 1e-12);
+	}
+}
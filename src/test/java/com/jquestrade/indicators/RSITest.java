@@ -0,0 +1,58 @@
+package com.jquestrade.indicators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RSITest {
+
+	/** The closing prices of the RSI worksheet on StockCharts' ChartSchool, which follows Wilder's method. */
+	private static final double[] CLOSES = {
+			44.34, 44.09, 44.15, 43.61, 44.33, 44.83, 45.10, 45.42, 45.84, 46.08, 45.89, 46.03, 45.61, 46.28,
+			46.28, 46.00, 46.03, 46.41, 46.22, 45.64, 46.21, 46.25, 45.71, 46.45};
+
+	/** RSI(14) from the 15th close on, with the averages unrounded (the worksheet rounds them, so it shows 70.53 first). */
+	private static final double[] EXPECTED = {70.46, 66.25, 66.48, 69.35, 66.29, 57.92, 62.88, 63.21, 56.01, 62.34};
+
+	@Test
+	void seedsWithFirstPeriodChanges() {
+		RSI rsi = new RSI(2);
+		rsi.update(1, 1, 1);
+		rsi.update(2, 2, 2);
+		assertFalse(rsi.isReady());
+
+		rsi.update(1, 1, 1);
+		assertTrue(rsi.isReady());
+		assertEquals(50, rsi.getValue(), 1e-9);
+	}
+
+	@Test
+	void matchesWilderWorksheet() {
+		RSI rsi = new RSI(14);
+		for(int i = 0; i < CLOSES.length; i++) {
+			rsi.update(CLOSES[i], CLOSES[i], CLOSES[i]);
+			int expected = i - 14;
+			if(expected < 0) {
+				assertFalse(rsi.isReady());
+			} else {
+				assertEquals(EXPECTED[expected], rsi.getValue(), 0.01, "close " + (i + 1));
+			}
+		}
+	}
+
+	@Test
+	void resetStartsOver() {
+		RSI rsi = new RSI(2);
+		rsi.update(5, 5, 5);
+		rsi.update(9, 9, 9);
+		rsi.update(3, 3, 3);
+		rsi.reset();
+
+		rsi.update(1, 1, 1);
+		rsi.update(2, 2, 2);
+		rsi.update(1, 1, 1);
+		assertEquals(50, rsi.getValue(), 1e-9);
+	}
+}
@@ -0,0 +1,58 @@
+package com.jquestrade.indicators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SMATest {
+
+	@Test
+	void averagesLastPeriodCloses() {
+		SMA sma = new SMA(3);
+		sma.update(1, 1, 1);
+		sma.update(2, 2, 2);
+		assertFalse(sma.isReady());
+
+		sma.update(6, 6, 6);
+		assertEquals(3, sma.getValue(), 1e-12);
+		sma.update(10, 10, 10);
+		assertEquals(6, sma.getValue(), 1e-12);
+	}
+
+	@Test
+	void largeCloseLeavesNoRoundingError() {
+		SMA sma = new SMA(4);
+		sma.update(1e16, 1e16, 1e16);
+		for(double close : new double[] {0.1, 0.2, 0.3, 0.4, 0.5}) {
+			sma.update(close, close, close);
+		}
+		assertEquals(0.35, sma.getValue(), 1e-12);
+	}
+
+	@Test
+	void matchesDirectAverageOverLongSeries() {
+		int period = 20;
+		double[] closes = new double[1_000_000];
+		Random random = new Random(1);
+		closes[0] = 100;
+		for(int i = 1; i < closes.length; i++) {
+			closes[i] = Math.max(closes[i - 1] + random.nextGaussian(), 0.01);
+		}
+
+		SMA sma = new SMA(period);
+		for(double close : closes) {
+			sma.update(close, close, close);
+		}
+
+		double sum = 0;
+		for(int i = closes.length - period; i < closes.length; i++) {
+			sum += closes[i];
+		}
+		assertTrue(sma.isReady());
+		assertEquals(sum / period, sma.getValue(), 1e-9 * sum / period);
+	}
+}